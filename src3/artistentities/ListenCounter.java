@@ -0,0 +1,145 @@
+package artistentities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import top.Leaderboard;
+
+/**
+ * Number of listens of every song/artist/... of a user, by the id of its name. A listen is a lookup
+ * in an open addressing table of ints, and the most listened ones are picked with a heap of the
+ * size of the top instead of sorting all of them. A ranked counter (used for the listeners of an
+ * artist, whose top is asked for often) also keeps them in order as they are listened to, so its
+ * top is read directly.
+ */
+public final class ListenCounter {
+
+    /**
+     * Most listened first, then alphabetically.
+     */
+    public static final Comparator<Listens> ORDER = (listens1, listens2) -> {
+        if (listens1.getListens() != listens2.getListens()) {
+            return Integer.compare(listens2.getListens(), listens1.getListens());
+        }
+        return listens1.getName().compareTo(listens2.getName());
+    };
+
+    private static final int INITIAL_SLOTS = 8;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private static final int HALF_BITS = 16;
+
+    // the counters in the order they were created in
+    private final ArrayList<Listens> counts = new ArrayList<>();
+    // linear probing over the ids: a slot holds the position of a counter plus one, 0 is empty
+    private int[] slots = new int[INITIAL_SLOTS];
+    private final Leaderboard<Listens> ranking;
+
+    public ListenCounter() {
+        this(false);
+    }
+
+    /**
+     * @param ranked is whether to keep the counters in order
+     */
+    public ListenCounter(final boolean ranked) {
+        if (ranked) {
+            ranking = new Leaderboard<>(Listens::getListens,
+                Comparator.comparing(Listens::getName));
+        } else {
+            ranking = null;
+        }
+    }
+
+    /**
+     * Add a listen to the song/artist/... with the given id and name.
+     */
+    public void add(final int id, final String name) {
+        int slot = slotOf(id);
+        if (slots[slot] == 0) {
+            // never listened to it before
+            Listens listens = new Listens(id, name);
+            counts.add(listens);
+            slots[slot] = counts.size();
+            if (counts.size() * 2 > slots.length) {
+                grow();
+            }
+            if (ranking != null) {
+                ranking.add(listens);
+            }
+        } else {
+            Listens listens = counts.get(slots[slot] - 1);
+            listens.addListen();
+            if (ranking != null) {
+                ranking.update(listens);
+            }
+        }
+    }
+
+    /**
+     * @return the slot of the counter with the given id, or the empty slot where it would go
+     */
+    private int slotOf(final int id) {
+        int mask = slots.length - 1;
+        int hash = id * HASH_MULTIPLIER;
+        int slot = (hash ^ (hash >>> HALF_BITS)) & mask;
+        while (slots[slot] != 0 && counts.get(slots[slot] - 1).getId() != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        slots = new int[slots.length * 2];
+        for (int i = 0; i < counts.size(); i++) {
+            slots[slotOf(counts.get(i).getId())] = i + 1;
+        }
+    }
+
+    /**
+     * @return the number of distinct songs/artists/... listened to
+     */
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * @return whether nothing was listened to
+     */
+    public boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * @return the (at most) size most listened, in {@link #ORDER}
+     */
+    public List<Listens> top(final int size) {
+        if (ranking != null) {
+            return ranking.top(size);
+        }
+        // the worst of the best ones found so far is on top of the heap
+        PriorityQueue<Listens> best = new PriorityQueue<>(size + 1, ORDER.reversed());
+        for (Listens listens : counts) {
+            best.add(listens);
+            if (best.size() > size) {
+                best.poll();
+            }
+        }
+        List<Listens> first = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            first.add(best.poll());
+        }
+        Collections.reverse(first);
+        return first;
+    }
+
+    /**
+     * @return all of them, in {@link #ORDER}
+     */
+    public List<Listens> sorted() {
+        List<Listens> all = new ArrayList<>(counts);
+        all.sort(ORDER);
+        return all;
+    }
+}
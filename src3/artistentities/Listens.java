@@ -7,14 +7,21 @@ import lombok.Setter;
 @Setter
 public final class Listens {
 
+    // dense id of the name (see audio.lists.SymbolTable), -1 when counted by name only
+    private int id;
     private String name;
     private int listens;
 
-    public Listens(final String name) {
+    public Listens(final int id, final String name) {
+        this.id = id;
         this.name = name;
         this.listens = 1;
     }
 
+    public Listens(final String name) {
+        this(-1, name);
+    }
+
     /**
      * Increase the number of listens for the song/artist/...
      */
@@ -3,12 +3,16 @@ package audio.files;
 import audio.item.AudioItem;
 import enums.AudioEnum;
 import lombok.Getter;
+import lombok.Setter;
 
 @Getter
 public abstract class AudioFile extends AudioItem {
 
     private final String name;
     private final Integer duration;
+    // dense id of the name, given by the library
+    @Setter
+    private int id;
 
     public AudioFile(final String name, final Integer duration, final AudioEnum type) {
         super(type);
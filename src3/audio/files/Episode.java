@@ -1,5 +1,6 @@
 package audio.files;
 
+import audio.lists.Catalog;
 import enums.AudioEnum;
 import fileio.input.EpisodeInput;
 import lombok.Getter;
@@ -12,6 +13,10 @@ public class Episode extends AudioFile {
     private String description;
 
     public Episode(final EpisodeInput episode) {
+        this(new Catalog.EpisodeEntry(episode));
+    }
+
+    public Episode(final Catalog.EpisodeEntry episode) {
         super(episode.getName(), episode.getDuration(), AudioEnum.EPISODE);
         description = episode.getDescription();
     }
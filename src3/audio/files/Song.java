@@ -1,34 +1,45 @@
 package audio.files;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
 
+import audio.lists.Catalog;
 import enums.AudioEnum;
 import fileio.input.SongInput;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import user.User;
+import user.UserIdSet;
 
 @Getter
 @Setter
 public class Song extends AudioFile {
 
     private String album;
-    private ArrayList<String> tags;
+    private List<String> tags;
     private String lyrics;
     private String genre;
     private int releaseYear;
     private String artist;
-    private ArrayList<User> likes;
+    // dense ids of the artist (a user), album and genre, given by the library
+    private int artistId;
+    private int albumId;
+    private int genreId;
+    private UserIdSet likes;
     private int listens;
+    // told about every change of the likes (the song and +1 / -1)
+    @Getter(AccessLevel.NONE)
+    private ObjIntConsumer<Song> likeListener;
 
 
     public Song(final SongInput song) {
+        this(new Catalog.SongEntry(song));
+    }
+
+    public Song(final Catalog.SongEntry song) {
         super(song.getName(), song.getDuration(), AudioEnum.SONG);
-        tags = new ArrayList<>();
-        for (String tag : song.getTags()) {
-            tags.add(tag);
-        }
-        likes = new ArrayList<>();
+        likes = new UserIdSet();
         album = song.getAlbum();
         tags = song.getTags();
         lyrics = song.getLyrics();
@@ -44,7 +55,9 @@ public class Song extends AudioFile {
      * @param user is the user that liked the song
      */
     public void addLike(final User user) {
-        likes.add(user);
+        if (likes.add(user) && likeListener != null) {
+            likeListener.accept(this, 1);
+        }
     }
 
     /**
@@ -53,7 +66,9 @@ public class Song extends AudioFile {
      * @param user is the user that unliked the song
      */
     public void removeLike(final User user) {
-        likes.remove(user);
+        if (likes.remove(user) && likeListener != null) {
+            likeListener.accept(this, -1);
+        }
     }
 
     /**
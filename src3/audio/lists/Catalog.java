@@ -0,0 +1,140 @@
+package audio.lists;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.EpisodeInput;
+import fileio.input.LibraryInput;
+import fileio.input.PodcastInput;
+import fileio.input.SongInput;
+import fileio.input.UserInput;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The base catalog (songs, podcasts and users) read from the library file. It is parsed only once
+ * into read-only entries (final fields, unmodifiable lists), so the runs can share it across
+ * threads. It is not an overlay: every run still builds all its entities and indexes from the
+ * entries, in time linear in the catalog, and all the changes made by a run (likes, new albums,
+ * deleted users, ...) stay in that run's Library. Only the parsing is saved, and the immutable
+ * parts of the entries (the tags of the songs, the names, lyrics and descriptions) are shared by
+ * the runs, not copied.
+ */
+@Getter
+public final class Catalog {
+
+    private final List<SongEntry> songs;
+    private final List<PodcastEntry> podcasts;
+    private final List<UserEntry> users;
+
+    private Catalog(final LibraryInput library) {
+        List<SongEntry> songEntries = new ArrayList<>();
+        for (SongInput song : library.getSongs()) {
+            songEntries.add(new SongEntry(song));
+        }
+        List<PodcastEntry> podcastEntries = new ArrayList<>();
+        for (PodcastInput podcast : library.getPodcasts()) {
+            podcastEntries.add(new PodcastEntry(podcast));
+        }
+        List<UserEntry> userEntries = new ArrayList<>();
+        for (UserInput user : library.getUsers()) {
+            userEntries.add(new UserEntry(user));
+        }
+        songs = Collections.unmodifiableList(songEntries);
+        podcasts = Collections.unmodifiableList(podcastEntries);
+        users = Collections.unmodifiableList(userEntries);
+    }
+
+    /**
+     * Parse the library file.
+     *
+     * @param mapper is used to deserialize the file
+     * @param file   is the library file
+     * @return the base catalog, to be shared by all the runs
+     * @throws IOException in case the file can't be read
+     */
+    public static Catalog load(final ObjectMapper mapper, final File file) throws IOException {
+        return new Catalog(mapper.readValue(file, LibraryInput.class));
+    }
+
+    /**
+     * Read-only definition of a song.
+     */
+    @Getter
+    public static final class SongEntry {
+        private final String name;
+        private final Integer duration;
+        private final String album;
+        private final List<String> tags;
+        private final String lyrics;
+        private final String genre;
+        private final int releaseYear;
+        private final String artist;
+
+        public SongEntry(final SongInput song) {
+            name = song.getName();
+            duration = song.getDuration();
+            album = song.getAlbum();
+            tags = List.copyOf(song.getTags());
+            lyrics = song.getLyrics();
+            genre = song.getGenre();
+            releaseYear = song.getReleaseYear();
+            artist = song.getArtist();
+        }
+    }
+
+    /**
+     * Read-only definition of an episode.
+     */
+    @Getter
+    public static final class EpisodeEntry {
+        private final String name;
+        private final Integer duration;
+        private final String description;
+
+        public EpisodeEntry(final EpisodeInput episode) {
+            name = episode.getName();
+            duration = episode.getDuration();
+            description = episode.getDescription();
+        }
+    }
+
+    /**
+     * Read-only definition of a podcast, with its episodes.
+     */
+    @Getter
+    public static final class PodcastEntry {
+        private final String name;
+        private final String owner;
+        private final List<EpisodeEntry> episodes;
+
+        private PodcastEntry(final PodcastInput podcast) {
+            name = podcast.getName();
+            owner = podcast.getOwner();
+            List<EpisodeEntry> entries = new ArrayList<>();
+            for (EpisodeInput episode : podcast.getEpisodes()) {
+                entries.add(new EpisodeEntry(episode));
+            }
+            episodes = Collections.unmodifiableList(entries);
+        }
+    }
+
+    /**
+     * Read-only definition of a (normal) user.
+     */
+    @Getter
+    public static final class UserEntry {
+        private final String username;
+        private final int age;
+        private final String city;
+
+        private UserEntry(final UserInput user) {
+            username = user.getUsername();
+            age = user.getAge();
+            city = user.getCity();
+        }
+    }
+}
@@ -1,30 +1,44 @@
 package audio.lists;
 
+import audio.files.Episode;
 import audio.files.Song;
-import audio.item.AudioItem;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import commands.Command;
 import enums.AudioEnum;
+import enums.SearchScope;
 import enums.Status;
-import fileio.input.LibraryInput;
-import fileio.input.UserInput;
-import fileio.input.SongInput;
-import fileio.input.PodcastInput;
+import enums.UserType;
 import java.util.Iterator;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import specialusers.Artist;
 import specialusers.Host;
 import user.User;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import output.AccountOutput;
+import output.ArtistRevenue;
+import output.EndProgramOutput;
+import output.OutputSink;
+import output.ResultOutput;
+import player.LoadedContent;
+import player.PlayerClock;
+import searchbar.SearchCache;
+import top.Leaderboard;
 
 @Getter
 @Setter
 public final class Library {
 
     private static final double HUNDRED = 100.0;
+    private static final int SEARCH_CACHE_SIZE = 256;
     private ArrayList<Song> songs = new ArrayList<>();
     private ArrayList<Podcast> podcasts = new ArrayList<>();
     private ArrayList<User> users = new ArrayList<>();
@@ -32,39 +46,78 @@ public final class Library {
     private ArrayList<Host> hosts = new ArrayList<>();
     private ArrayList<Playlist> playlists = new ArrayList<>();
     private ArrayList<Album> albums = new ArrayList<>();
-    private static Library instance = null;
     private int lastTimestamp;
+    // name lookups, kept in sync with the lists above by every add / remove below
+    @Getter(AccessLevel.NONE)
+    private final NameIndex<User> accounts = new NameIndex<>(user -> user.getType().ordinal());
+    @Getter(AccessLevel.NONE)
+    private final NameIndex<Song> songsByName = new NameIndex<>(song -> 0);
+    // prefix trees of the names, used by the search bar
+    private final PrefixIndex<Podcast> podcastNames = new PrefixIndex<>();
+    private final PrefixIndex<Playlist> playlistNames = new PrefixIndex<>();
+    private final PrefixIndex<Album> albumNames = new PrefixIndex<>();
+    private final PrefixIndex<Artist> artistNames = new PrefixIndex<>();
+    private final PrefixIndex<Host> hostNames = new PrefixIndex<>();
+    // postings of the song filters, names included
+    private final SongFilterIndex songFilters = new SongFilterIndex();
+    // results of recent searches, checked against the versions of the searched collections
+    private final SearchCache searchCache = new SearchCache(SEARCH_CACHE_SIZE);
+    @Getter(AccessLevel.NONE)
+    private final long[] versions = new long[SearchScope.values().length];
+    // players of the users, by their next event
+    @Getter(AccessLevel.NONE)
+    private final PlayerClock playerClock = new PlayerClock();
+    // what the players have loaded and which pages the users are on
+    private final LoadedContent loadedContent = new LoadedContent();
+    // the songs of every artist (by name) and the playlists having every song, so deleting
+    // something only goes through its own references
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<Song>> songsByArtist = new HashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Map<Song, List<Playlist>> playlistsWithSong = new IdentityHashMap<>();
+    // songs, albums and artists by likes and playlists by followers, for the tops; the likes of
+    // the albums and artists are added up as the songs are liked
+    private final Leaderboard<Song> songRanking = new Leaderboard<>(song -> song.getLikes().size());
+    private final Leaderboard<Playlist> playlistRanking =
+        new Leaderboard<>(playlist -> playlist.getFollowers().size());
+    private final Leaderboard<Album> albumRanking =
+        new Leaderboard<>(Album::getLikes, Comparator.comparing(Album::getName));
+    private final Leaderboard<Artist> artistRanking = new Leaderboard<>(Artist::getLikes);
+    @Getter(AccessLevel.NONE)
+    private final Map<Song, Album> albumOfSong = new IdentityHashMap<>();
+    // users having progress in every podcast, so a removed podcast is only taken from them
+    @Getter(AccessLevel.NONE)
+    private final Map<Podcast, Set<User>> podcastListeners = new IdentityHashMap<>();
+    // dense ids of the names; the artists are users, so the artists of the songs get user ids
+    private final SymbolTable userIds = new SymbolTable();
+    private final SymbolTable songIds = new SymbolTable();
+    private final SymbolTable episodeIds = new SymbolTable();
+    private final SymbolTable albumIds = new SymbolTable();
+    private final SymbolTable genreIds = new SymbolTable();
+    // number of references removed by the last deletion (of a user or an album), printed with
+    // the diagnostics of the run (see Main)
+    private int lastDeleteCost;
 
-    private Library(final LibraryInput library) {
-        for (SongInput song : library.getSongs()) {
-            songs.add(new Song(song));
+    public Library(final Catalog catalog) {
+        // the catalog is shared by all the runs, each of them builds its entities and indexes
+        for (Catalog.SongEntry song : catalog.getSongs()) {
+            addSong(new Song(song));
         }
-        for (PodcastInput podcast : library.getPodcasts()) {
-            podcasts.add(new Podcast(podcast));
-            hosts.add(new Host(podcast.getOwner(), 0, ""));
+        for (Catalog.PodcastEntry podcast : catalog.getPodcasts()) {
+            addPodcast(new Podcast(podcast));
+            Host host = new Host(podcast.getOwner(), 0, "");
+            hosts.add(host);
+            addAccount(host);
+            hostNames.add(host.getUsername(), host);
         }
-        for (UserInput user : library.getUsers()) {
-            users.add(new User(user, this));
+        for (Catalog.UserEntry entry : catalog.getUsers()) {
+            User user = new User(entry.getUsername(), entry.getAge(), entry.getCity(), this);
+            users.add(user);
+            addAccount(user);
+            track(user);
         }
     }
 
-    /**
-     * Singleton pattern inititation
-     */
-    public static Library getInstance(final LibraryInput library) {
-        if (instance == null) {
-            instance = new Library(library);
-        }
-        return instance;
-    }
-
-    /**
-     * Singleton pattern reset
-     */
-    public static void reset() {
-        instance = null;
-    }
-
     /**
      * Find a user's data (such as player, search bar, etc.)
      *
@@ -76,53 +129,33 @@ public final class Library {
         if (username == null) {
             return null;
         }
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return user;
-            }
-        }
-        for (User artist : artists) {
-            if (artist.getUsername().equals(username)) {
-                return artist;
-            }
-        }
-        for (User host : hosts) {
-            if (host.getUsername().equals(username)) {
-                return host;
-            }
-        }
-        return null;
+        return accounts.first(username);
     }
 
     /**
      * Retrieves and generates a list of usernames for online users based on the provided command
-     * and appends the result to the given ArrayNode.
+     * and appends the result to the given outputs.
      * <p>
      * This method iterates through a collection of User objects, checks their status, and includes
      * the usernames of those with an online status in the result.
      *
      * @param command The Command object associated with the request.
-     * @param outputs The ArrayNode to which the result will be appended.
+     * @param outputs The sink to which the result will be appended.
      */
-    public void getOnlineUsers(final Command command, final ArrayNode outputs) {
+    public void getOnlineUsers(final Command command, final OutputSink outputs) {
         //go through users and print all usernames of online users
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode getOnlineUsersOutput = mapper.createObjectNode();
-        getOnlineUsersOutput.put("command", "getOnlineUsers");
-        getOnlineUsersOutput.put("timestamp", command.getTimestamp());
-        ArrayNode usersList = mapper.createArrayNode();
+        ArrayList<String> usersList = new ArrayList<>();
         for (User user : users) {
             if (user.getStatus() == Status.ONLINE) {
                 usersList.add(user.getUsername());
             }
         }
-        getOnlineUsersOutput.putPOJO("result", usersList);
-        outputs.add(getOnlineUsersOutput);
+        outputs.add(new ResultOutput("getOnlineUsers", null, command.getTimestamp(), usersList));
     }
 
     /**
      * Processes a command to add a new user, artist, or host to the system and provides feedback
-     * through the specified ArrayNode.
+     * through the specified outputs.
      * <p>
      * This method checks if the specified username already exists in the users, artists, or hosts
      * arrays. If the username is already taken, an appropriate message is added to the output.
@@ -131,44 +164,20 @@ public final class Library {
      *
      * @param command   The Command object containing information about the user to be added.
      * @param myLibrary The Library object associated with the system.
-     * @param outputs   The ArrayNode to which the feedback message will be appended.
+     * @param outputs   The sink to which the feedback message will be appended.
      */
-    public void addUser(final Command command, final Library myLibrary, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addUserOutput = mapper.createObjectNode();
-        addUserOutput.put("command", "addUser");
-        addUserOutput.put("timestamp", command.getTimestamp());
-        addUserOutput.put("user", command.getUsername());
-        //check if user already exists, in users and artists array
-        boolean userExists = false;
-        for (User user : users) {
-            if (user.getUsername().equals(command.getUsername())) {
-                userExists = true;
-                break;
-            }
-        }
-        for (User artist : artists) {
-            if (artist.getUsername().equals(command.getUsername())) {
-                userExists = true;
-                break;
-            }
-        }
-        for (User host : hosts) {
-            if (host.getUsername().equals(command.getUsername())) {
-                userExists = true;
-                break;
-            }
-        }
+    public void addUser(final Command command, final Library myLibrary, final OutputSink outputs) {
+        //check if user already exists, in users, artists and hosts
+        boolean userExists = accounts.contains(command.getUsername());
         if (userExists) {
             if (command.getType().equals("host")) {
-                addUserOutput.put("message",
-                    "The username " + command.getUsername() + " has been added successfully.");
-                outputs.add(addUserOutput);
+                outputs.add(new AccountOutput("addUser", command.getTimestamp(),
+                    command.getUsername(),
+                    "The username " + command.getUsername() + " has been added successfully."));
                 return;
             }
-            addUserOutput.put("message",
-                "The username " + command.getUsername() + " is already taken.");
-            outputs.add(addUserOutput);
+            outputs.add(new AccountOutput("addUser", command.getTimestamp(), command.getUsername(),
+                "The username " + command.getUsername() + " is already taken."));
             return;
         }
         //create new user and add it to users array
@@ -177,23 +186,36 @@ public final class Library {
                 User newUser = new User(command.getUsername(), command.getAge(), command.getCity(),
                     this);
                 users.add(newUser);
+                addAccount(newUser);
+                track(newUser);
             }
             case "artist" -> {
                 Artist newArtist = new Artist(command.getUsername(), command.getAge(),
                     command.getCity());
                 artists.add(newArtist);
+                addAccount(newArtist);
+                artistNames.add(newArtist.getUsername(), newArtist);
+                artistRanking.add(newArtist);
+                bumpVersion(SearchScope.ARTIST);
             }
             case "host" -> {
                 Host newHost = new Host(command.getUsername(), command.getAge(), command.getCity());
                 hosts.add(newHost);
+                addAccount(newHost);
+                hostNames.add(newHost.getUsername(), newHost);
+                bumpVersion(SearchScope.HOST);
             }
             default -> {
                 break;
             }
         }
-        addUserOutput.put("message",
-            "The username " + command.getUsername() + " has been added successfully.");
-        outputs.add(addUserOutput);
+        outputs.add(new AccountOutput("addUser", command.getTimestamp(), command.getUsername(),
+            "The username " + command.getUsername() + " has been added successfully."));
+    }
+
+    private void addAccount(final User account) {
+        account.setId(userIds.intern(account.getUsername()));
+        accounts.add(account.getUsername(), account);
     }
 
     /**
@@ -203,24 +225,224 @@ public final class Library {
      * @return The song object (reference) if it exists, null otherwise.
      */
     public Song getSong(final String name) {
-        for (Song song : songs) {
-            if (song.getName().equals(name)) {
-                return song;
+        return songsByName.first(name);
+    }
+
+    /**
+     * Add a song at the end of the library.
+     */
+    public void addSong(final Song song) {
+        song.setId(songIds.intern(song.getName()));
+        // the songs share the names of their artists, albums and genres
+        song.setArtistId(userIds.intern(song.getArtist()));
+        song.setArtist(userIds.nameOf(song.getArtistId()));
+        song.setAlbumId(albumIds.intern(song.getAlbum()));
+        song.setAlbum(albumIds.nameOf(song.getAlbumId()));
+        song.setGenreId(genreIds.intern(song.getGenre()));
+        song.setGenre(genreIds.nameOf(song.getGenreId()));
+        songs.add(song);
+        songsByArtist.computeIfAbsent(song.getArtist(), artist -> new ArrayList<>()).add(song);
+        song.setLikeListener(this::likesChanged);
+        songRanking.add(song);
+        songsByName.add(song.getName(), song);
+        songFilters.add(song);
+        bumpVersion(SearchScope.SONG);
+    }
+
+    private void likesChanged(final Song song, final int change) {
+        songRanking.update(song);
+        Album album = albumOfSong.get(song);
+        if (album != null) {
+            album.setLikes(album.getLikes() + change);
+            albumRanking.update(album);
+            Artist artist = (Artist) album.getOwner();
+            artist.setLikes(artist.getLikes() + change);
+            artistRanking.update(artist);
+        }
+    }
+
+    /**
+     * Remove a song from the library, the playlists having it and the liked songs of the users.
+     *
+     * @return the number of references removed
+     */
+    public int removeSong(final Song song) {
+        if (!songs.remove(song)) {
+            return 0;
+        }
+        int removed = detachSong(song) + 1;
+        songsByArtist.get(song.getArtist()).remove(song);
+        bumpVersion(SearchScope.SONG);
+        return removed;
+    }
+
+    /**
+     * Remove a song from the playlists having it, the liked songs of the users and the song
+     * indexes (but not from the list of songs).
+     *
+     * @return the number of references removed
+     */
+    private int detachSong(final Song song) {
+        int removed = 0;
+        List<Playlist> having = playlistsWithSong.remove(song);
+        if (having != null) {
+            for (Playlist playlist : having) {
+                playlist.getSongs().remove(song);
+                loadedContent.songRemoved(playlist, song);
+                removed++;
+            }
+        }
+        for (User liker : song.getLikes()) {
+            liker.getLikedSongs().remove(song);
+            removed++;
+        }
+        songsByName.remove(song.getName(), song);
+        songFilters.remove(song);
+        songRanking.remove(song);
+        return removed;
+    }
+
+    /**
+     * Add a song at the end of a playlist.
+     */
+    public void addToPlaylist(final Playlist playlist, final Song song) {
+        playlist.getSongs().add(song);
+        playlistsWithSong.computeIfAbsent(song, key -> new ArrayList<>()).add(playlist);
+        loadedContent.songAdded(playlist, song);
+    }
+
+    /**
+     * Remove a song from a playlist.
+     */
+    public void removeFromPlaylist(final Playlist playlist, final Song song) {
+        if (playlist.getSongs().remove(song)) {
+            unlinkFromPlaylist(playlist, song);
+            loadedContent.songRemoved(playlist, song);
+        }
+    }
+
+    private void unlinkFromPlaylist(final Playlist playlist, final Song song) {
+        List<Playlist> having = playlistsWithSong.get(song);
+        having.remove(playlist);
+        if (having.isEmpty()) {
+            playlistsWithSong.remove(song);
+        }
+    }
+
+    /**
+     * Add a podcast at the end of the library.
+     */
+    public void addPodcast(final Podcast podcast) {
+        for (Episode episode : podcast.getEpisodes()) {
+            episode.setId(episodeIds.intern(episode.getName()));
+        }
+        podcasts.add(podcast);
+        podcastNames.add(podcast.getName(), podcast);
+        bumpVersion(SearchScope.PODCAST);
+    }
+
+    /**
+     * Remove a podcast from the library.
+     */
+    public void removePodcast(final Podcast podcast) {
+        if (podcasts.remove(podcast)) {
+            podcastNames.remove(podcast);
+            forgetPodcast(podcast);
+            bumpVersion(SearchScope.PODCAST);
+        }
+    }
+
+    /**
+     * Remember that a user has progress in a podcast (see {@link User#progressOf}).
+     */
+    public void startedPodcast(final User user, final Podcast podcast) {
+        podcastListeners.computeIfAbsent(podcast,
+            key -> Collections.newSetFromMap(new IdentityHashMap<>())).add(user);
+    }
+
+    private void forgetPodcast(final Podcast podcast) {
+        Set<User> listeners = podcastListeners.remove(podcast);
+        if (listeners != null) {
+            for (User listener : listeners) {
+                listener.getPodcastProgress().remove(podcast);
+            }
+        }
+    }
+
+    /**
+     * Add a playlist at the end of the library.
+     */
+    public void addPlaylist(final Playlist playlist) {
+        playlists.add(playlist);
+        playlistNames.add(playlist.getName(), playlist);
+        playlist.setRanking(playlistRanking);
+        playlistRanking.add(playlist);
+        bumpVersion(SearchScope.PLAYLIST);
+    }
+
+    /**
+     * Add an album at the end of the library. In searches, albums come in the order of their
+     * artists, so the album is indexed after the other albums of its artist.
+     */
+    public void addAlbum(final Album album) {
+        albums.add(album);
+        albumNames.add(album.getName(), album, artistNames.orderOf((Artist) album.getOwner()));
+        bumpVersion(SearchScope.ALBUM);
+        int likes = 0;
+        for (Song song : album.getSongs()) {
+            albumOfSong.put(song, album);
+            likes += song.getLikes().size();
+        }
+        album.setLikes(likes);
+        albumRanking.add(album);
+        Artist artist = (Artist) album.getOwner();
+        artist.setLikes(artist.getLikes() + likes);
+        artistRanking.update(artist);
+    }
+
+    /**
+     * Remove an album and its songs from the library (see {@link #removeSong}).
+     */
+    public void removeAlbum(final Album album) {
+        if (albums.remove(album)) {
+            albumNames.remove(album);
+            bumpVersion(SearchScope.ALBUM);
+            albumRanking.remove(album);
+            Artist artist = (Artist) album.getOwner();
+            artist.setLikes(artist.getLikes() - album.getLikes());
+            artistRanking.update(artist);
+            for (Song song : album.getSongs()) {
+                albumOfSong.remove(song);
+            }
+            int removed = 1;
+            for (Song song : album.getSongs()) {
+                removed += removeSong(song);
             }
+            lastDeleteCost = removed;
         }
-        return null;
+    }
+
+    /**
+     * @return the version of a searched collection
+     */
+    public long getVersion(final SearchScope scope) {
+        return versions[scope.ordinal()];
+    }
+
+    /**
+     * Signal that the results of the searches in a collection could have changed, so the cached
+     * ones are not used anymore.
+     */
+    public void bumpVersion(final SearchScope scope) {
+        versions[scope.ordinal()]++;
     }
 
     /**
      * Show all users, offline or online, regardless of type. (user, artist, host)
      */
-    public void getAllUsers(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode printAllUsersOutput = mapper.createObjectNode();
-        printAllUsersOutput.put("command", "getAllUsers");
-        printAllUsersOutput.put("timestamp", command.getTimestamp());
+    public void getAllUsers(final Command command, final OutputSink outputs) {
         //array of all usernames
-        ArrayNode usernames = mapper.createArrayNode();
+        ArrayList<String> usernames = new ArrayList<>();
         for (User user : users) {
             usernames.add(user.getUsername());
         }
@@ -230,31 +452,23 @@ public final class Library {
         for (Host host : hosts) {
             usernames.add(host.getUsername());
         }
-        printAllUsersOutput.putPOJO("result", usernames);
-        outputs.add(printAllUsersOutput);
+        outputs.add(new ResultOutput("getAllUsers", null, command.getTimestamp(), usernames));
     }
 
     /**
      * Processes a command to delete a user, artist, or host from the system and provides feedback
-     * through the specified ArrayNode. This method checks if the user exists, then (if existing)
+     * through the specified outputs. This method checks if the user exists, then (if existing)
      * checks if the user can be deleted. If the user can be deleted, all references to the user are
      * removed from the system. Otherwise, an appropriate message is added to the output.
      */
-    public void deleteUser(final Command command, final ArrayNode outputs, final Library library) {
+    public void deleteUser(final Command command, final OutputSink outputs, final Library library) {
         // update timestamp
-        for (User user : users) {
-            user.getPlayer().update(command.getTimestamp(), user, library);
-        }
+        updatePlayers(command.getTimestamp());
         // find user (is he normal, artist or host?)
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode deleteUserOutput = mapper.createObjectNode();
-        deleteUserOutput.put("command", "deleteUser");
-        deleteUserOutput.put("timestamp", command.getTimestamp());
-        deleteUserOutput.put("user", command.getUsername());
         User user = findUser(command.getUsername());
         if (user == null) {
-            deleteUserOutput.put("message", "User " + command.getUsername() + " not found!");
-            outputs.add(deleteUserOutput);
+            outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                command.getUsername(), "User " + command.getUsername() + " not found!"));
             return;
         }
         boolean deletable = true;
@@ -262,175 +476,55 @@ public final class Library {
             case NORMAL -> {
                 // check if i can delete user
                 // see if anyone has his playlist loaded
-                for (User user1 : users) {
-                    AudioItem queue = user1.getPlayer().getQueue();
-                    if (queue != null && queue.getType() == AudioEnum.PLAYLIST
-                        && ((Playlist) queue).getOwner().equals(user)) {
-                        deletable = false;
-                        break;
-
-                    }
-                }
+                deletable = !loadedContent.isLoaded(AudioEnum.PLAYLIST, user.getUsername());
                 if (deletable) {
-                    //remove all likes and follows of user
-                    Iterator<Song> iterator = songs.iterator();
-                    while (iterator.hasNext()) {
-                        Song song = iterator.next();
-                        if (song.getLikes().contains(user)) {
-                            song.getLikes().remove(user);
-                        }
-                    }
-                    Iterator<Playlist> iterator1 = playlists.iterator();
-                    while (iterator1.hasNext()) {
-                        Playlist playlist = iterator1.next();
-                        if (playlist.getOwner().equals(user)) {
-                            iterator1.remove();
-                        }
-                        if (playlist.getFollowers().contains(user)) {
-                            playlist.getFollowers().remove(user);
-                        }
-                    }
-                    // remove user's playlist from other users follows
-                    for (User user1 : users) {
-                        Iterator<Playlist> iterator2 = user1.getFollowedPlaylists().iterator();
-                        while (iterator2.hasNext()) {
-                            Playlist playlist = iterator2.next();
-                            if (playlist.getOwner().equals(user)) {
-                                iterator2.remove();
-                            }
-                        }
-                    }
-
+                    lastDeleteCost = deleteNormalUser(user);
                     users.remove(user);
+                    accounts.remove(user.getUsername(), user);
+                    playerClock.unregister(user);
+                    loadedContent.remove(user);
+                    bumpVersion(SearchScope.PLAYLIST);
                     // success message
-                    deleteUserOutput.put("message",
-                        command.getUsername() + " was successfully deleted.");
-                    outputs.add(deleteUserOutput);
+                    outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                        command.getUsername(),
+                        command.getUsername() + " was successfully deleted."));
                 } else {
-                    deleteUserOutput.put("message", command.getUsername() + " can't be deleted.");
-                    outputs.add(deleteUserOutput);
+                    outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                        command.getUsername(), command.getUsername() + " can't be deleted."));
                 }
             }
             case ARTIST -> {
                 Artist artist = (Artist) user;
                 //check if i can delete artist
-                //see if anyone has his song loaded
-                for (User user1 : users) {
-                    AudioItem currentQueue = user1.getPlayer().getQueue();
-                    if (currentQueue != null) {
-                        switch (currentQueue.getType()) {
-                            case SONG -> {
-                                if (((Song) currentQueue).getArtist()
-                                    .equals(artist.getUsername())) {
-                                    deletable = false;
-                                    break;
-                                }
-                            }
-                            case ALBUM -> {
-                                if (((Album) currentQueue).getOwner().getUsername()
-                                    .equals(artist.getUsername())) {
-                                    deletable = false;
-                                    break;
-                                }
-                            }
-                            case PLAYLIST -> {
-                                for (Song song : ((Playlist) currentQueue).getSongs()) {
-                                    if (song.getArtist().equals(artist.getUsername())) {
-                                        deletable = false;
-                                        break;
-                                    }
-                                }
-                            }
-                            default -> {
-                                break;
-                            }
-                        }
-                    }
-                    // check if user is on artist page
-                    if (user1.getPageOwner().equals(artist.getUsername())) {
-                        deletable = false;
-                        break;
-                    }
-                }
+                //see if anyone has his song loaded, or is on his page
+                String name = artist.getUsername();
+                deletable = !loadedContent.isLoaded(AudioEnum.SONG, name)
+                    && !loadedContent.isLoaded(AudioEnum.ALBUM, name)
+                    && !loadedContent.isArtistInLoadedPlaylist(name)
+                    && !loadedContent.isPageOpen(name);
                 if (deletable) {
-                    // remove all songs from library
-
-                    // remove all albums from library
-                    Iterator<Album> iterator2 = albums.iterator();
-                    while (iterator2.hasNext()) {
-                        Album album = iterator2.next();
-                        if (album.getOwner().equals(artist)) {
-                            iterator2.remove();
-                        }
-                    }
-                    // remove all songs from playlists
-                    for (Playlist playlist : playlists) {
-                        for (Song song : playlist.getSongs()) {
-                            if (song.getArtist().equals(artist.getUsername())) {
-                                playlist.getSongs().remove(song);
-                            }
-                        }
-                    }
-                    for (User user1 : users) {
-                        // remove all likes of user
-                        Iterator<Song> iterator3 = user1.getLikedSongs().iterator();
-                        while (iterator3.hasNext()) {
-                            Song song = iterator3.next();
-                            if (song.getArtist().equals(artist.getUsername())) {
-                                iterator3.remove();
-                            }
-                        }
-
-                        // get queue of user
-                        AudioItem queue = user1.getPlayer().getQueue();
-                        // if queue is a playlist, remove all songs from artist
-                        if (queue != null && queue.getType() == AudioEnum.PLAYLIST) {
-                            for (Song song : ((Playlist) queue).getSongs()) {
-                                if (song.getArtist().equals(artist.getUsername())) {
-                                    ((Playlist) queue).getSongs().remove(song);
-                                }
-                            }
-                        }
-                    }
-
-                    Iterator<Song> iterator = songs.iterator();
-                    while (iterator.hasNext()) {
-                        Song song = iterator.next();
-                        if (song.getArtist().equals(artist.getUsername())) {
-                            iterator.remove();
-                        }
-                    }
+                    lastDeleteCost = deleteArtist(artist);
                     // success
                     artists.remove(artist);
-                    deleteUserOutput.put("message",
-                        command.getUsername() + " was successfully deleted.");
-                    outputs.add(deleteUserOutput);
+                    accounts.remove(artist.getUsername(), artist);
+                    artistNames.remove(artist);
+                    bumpVersion(SearchScope.SONG);
+                    bumpVersion(SearchScope.ALBUM);
+                    bumpVersion(SearchScope.ARTIST);
+                    outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                        command.getUsername(),
+                        command.getUsername() + " was successfully deleted."));
                 } else {
-                    deleteUserOutput.put("message",
-                        command.getUsername() + " can't be deleted.");
-                    outputs.add(deleteUserOutput);
+                    outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                        command.getUsername(), command.getUsername() + " can't be deleted."));
                 }
             }
             case HOST -> {
                 Host host = (Host) user;
                 //check if i can delete host
-                //see if anyone has his podcast loaded
-                for (User user1 : users) {
-                    AudioItem currentQueue = user1.getPlayer().getQueue();
-                    if (currentQueue != null) {
-                        if (currentQueue.getType() == AudioEnum.PODCAST) {
-                            if (((Podcast) currentQueue).getOwner().equals(host.getUsername())) {
-                                deletable = false;
-                                break;
-                            }
-                        }
-                    }
-                    //also check if they're on his page
-                    if (user1.getPageOwner().equals(host.getUsername())) {
-                        deletable = false;
-                        break;
-                    }
-                }
+                //see if anyone has his podcast loaded, or is on his page
+                deletable = !loadedContent.isLoaded(AudioEnum.PODCAST, host.getUsername())
+                    && !loadedContent.isPageOpen(host.getUsername());
                 if (deletable) {
                     // remove all podcasts from library
                     Iterator<Podcast> iterator = podcasts.iterator();
@@ -438,28 +532,23 @@ public final class Library {
                         Podcast podcast = iterator.next();
                         if (podcast.getOwner().equals(host.getUsername())) {
                             iterator.remove();
-                        }
-                    }
-                    // remove all podcasts from users
-                    for (User user1 : users) {
-                        Iterator<PodcastProgress> iterator1 = user1.getPodcastProgress().iterator();
-                        while (iterator1.hasNext()) {
-                            PodcastProgress podcastProgress = iterator1.next();
-                            if (podcastProgress.getPodcast().getOwner()
-                                .equals(host.getUsername())) {
-                                iterator1.remove();
-                            }
+                            podcastNames.remove(podcast);
+                            // and from the users that listened to them
+                            forgetPodcast(podcast);
                         }
                     }
                     // success
                     hosts.remove(host);
-                    deleteUserOutput.put("message",
-                        command.getUsername() + " was successfully deleted.");
-                    outputs.add(deleteUserOutput);
+                    accounts.remove(host.getUsername(), host);
+                    hostNames.remove(host);
+                    bumpVersion(SearchScope.PODCAST);
+                    bumpVersion(SearchScope.HOST);
+                    outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                        command.getUsername(),
+                        command.getUsername() + " was successfully deleted."));
                 } else {
-                    deleteUserOutput.put("message",
-                        command.getUsername() + " can't be deleted.");
-                    outputs.add(deleteUserOutput);
+                    outputs.add(new AccountOutput("deleteUser", command.getTimestamp(),
+                        command.getUsername(), command.getUsername() + " can't be deleted."));
                 }
             }
             default -> {
@@ -469,34 +558,120 @@ public final class Library {
     }
 
     /**
-     * Find an artists based on his name.
+     * Remove the likes, follows and playlists of a normal user, going only through the user's
+     * own references.
+     *
+     * @return the number of references removed
      */
-    public Artist findArtist(final String name) {
-        for (Artist artist : artists) {
-            if (artist.getUsername().equals(name)) {
-                return artist;
+    private int deleteNormalUser(final User user) {
+        int removed = 0;
+        for (Podcast podcast : user.getPodcastProgress().keySet()) {
+            podcastListeners.get(podcast).remove(user);
+        }
+        for (Song song : user.getLikedSongs()) {
+            song.removeLike(user);
+            removed++;
+        }
+        for (Playlist playlist : user.getFollowedPlaylists()) {
+            playlist.removeFollower(user);
+            removed++;
+        }
+        Set<Playlist> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Playlist playlist : user.getPlaylists()) {
+            owned.add(playlist);
+            playlistNames.remove(playlist);
+            playlistRanking.remove(playlist);
+            // nobody follows the playlist anymore
+            for (User follower : playlist.getFollowers()) {
+                follower.getFollowedPlaylists().remove(playlist);
+                removed++;
+            }
+            for (Song song : playlist.getSongs()) {
+                unlinkFromPlaylist(playlist, song);
+                removed++;
             }
         }
-        return null;
+        playlists.removeIf(owned::contains);
+        return removed + owned.size();
+    }
+
+    /**
+     * Remove the albums and songs of an artist, with the songs' references from the playlists
+     * and liked songs.
+     *
+     * @return the number of references removed
+     */
+    private int deleteArtist(final Artist artist) {
+        Set<Album> ownAlbums = Collections.newSetFromMap(new IdentityHashMap<>());
+        ownAlbums.addAll(artist.getAlbums());
+        for (Album album : ownAlbums) {
+            albumNames.remove(album);
+            albumRanking.remove(album);
+            for (Song song : album.getSongs()) {
+                albumOfSong.remove(song);
+            }
+        }
+        artistRanking.remove(artist);
+        albums.removeIf(ownAlbums::contains);
+        int removed = ownAlbums.size();
+        List<Song> own = songsByArtist.remove(artist.getUsername());
+        if (own != null) {
+            Set<Song> ownSongs = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Song song : own) {
+                ownSongs.add(song);
+                removed += detachSong(song) + 1;
+            }
+            songs.removeIf(ownSongs::contains);
+        }
+        return removed;
+    }
+
+    /**
+     * Bring the players of all the users to the given timestamp. Only the players that reach the
+     * end of a track (or ad, or episode) by then are updated, the others catch up when used.
+     */
+    public void updatePlayers(final int timestamp) {
+        for (User user : playerClock.advance(timestamp, this)) {
+            loadedContent.sync(user);
+        }
+    }
+
+    /**
+     * Bring the player indexes up to date with a user, after the user gave a command.
+     */
+    public void playerChanged(final User user) {
+        playerClock.reschedule(user);
+        loadedContent.sync(user);
+    }
+
+    private void track(final User user) {
+        playerClock.register(user);
+        loadedContent.add(user);
+    }
+
+    /**
+     * Find an artists based on his name.
+     */
+    public Artist findArtist(final String name) {
+        return (Artist) accounts.first(name, UserType.ARTIST.ordinal());
     }
 
     /**
      * Calculate all the revenue for artists, as well as their
      * most profitable songs.
      */
-    public void endProgram(final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode endProgramOutput = mapper.createObjectNode();
-        endProgramOutput.put("command", "endProgram");
-
+    public void endProgram(final OutputSink outputs) {
+        // one user at a time, so the ad and premium payouts add up in the users' order
         for (User user : users) {
             user.getPlayer().update(lastTimestamp, user, this);
+            playerChanged(user);
             if (user.isPremium() && !user.getPlayer().getPremiumSongHistory().isEmpty()) {
                 user.getPlayer().payout(user, this);
             }
         }
-        //sort artists by revenue
-        artists.sort((artist1, artist2) -> {
+        //sort artists by revenue (a copy, the library order is the one the searches use)
+        ArrayList<Artist> ranking = new ArrayList<>(artists);
+        ranking.sort((artist1, artist2) -> {
             if (artist1.getSongRevenue() + artist1.getMerchRevenue()
                 > artist2.getSongRevenue() + artist2.getMerchRevenue()) {
                 return -1;
@@ -507,18 +682,15 @@ public final class Library {
                 return artist1.getUsername().compareTo(artist2.getUsername());
             }
         });
-        ObjectNode result = mapper.createObjectNode();
+        LinkedHashMap<String, ArtistRevenue> result = new LinkedHashMap<>();
         int printed = 1;
-        for (Artist artist : artists) {
+        for (Artist artist : ranking) {
             if (artist.getSongRevenue() + artist.getMerchRevenue() > 0
                 || artist.getListeners().size() > 0) {
-                ObjectNode artistNode = mapper.createObjectNode();
                 artist.setSongRevenue(Math.round(artist.getSongRevenue() * HUNDRED) / HUNDRED);
-                artistNode.put("songRevenue", artist.getSongRevenue());
-                artistNode.put("merchRevenue", artist.getMerchRevenue());
-                artistNode.put("ranking", printed);
+                String mostProfitableSong;
                 if (artist.getSongRevenue() == 0) {
-                    artistNode.put("mostProfitableSong", "N/A");
+                    mostProfitableSong = "N/A";
                 } else {
                     // sort songs by revenue
                     artist.getSongProfits().sort((song1, song2) -> {
@@ -530,14 +702,13 @@ public final class Library {
                             return song1.getSongName().compareTo(song2.getSongName());
                         }
                     });
-                    artistNode.put("mostProfitableSong",
-                        artist.getSongProfits().get(0).getSongName());
+                    mostProfitableSong = artist.getSongProfits().get(0).getSongName();
                 }
+                result.put(artist.getUsername(), new ArtistRevenue(artist.getSongRevenue(),
+                    artist.getMerchRevenue(), printed, mostProfitableSong));
                 printed++;
-                result.putPOJO(artist.getUsername(), artistNode);
             }
         }
-        endProgramOutput.putPOJO("result", result);
-        outputs.add(endProgramOutput);
+        outputs.add(new EndProgramOutput(result));
     }
 }
@@ -0,0 +1,93 @@
+package audio.lists;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Hash index from a name to the entities that have it. The entities sharing a name are kept in
+ * the order in which the linear scans of the library would find them, so the first one is always
+ * the answer the old lookups gave.
+ *
+ * @param <T> is the type of the indexed entities
+ */
+final class NameIndex<T> {
+
+    private final Map<String, ArrayList<T>> buckets = new HashMap<>();
+    private final ToIntFunction<T> rank;
+
+    /**
+     * @param rank orders the entities sharing a name: lower ranks come first and entities with the
+     *             same rank keep their insertion order
+     */
+    NameIndex(final ToIntFunction<T> rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Index an entity.
+     */
+    void add(final String name, final T entity) {
+        ArrayList<T> bucket = buckets.computeIfAbsent(name, key -> new ArrayList<>(1));
+        int position = bucket.size();
+        while (position > 0 && rank.applyAsInt(bucket.get(position - 1))
+            > rank.applyAsInt(entity)) {
+            position--;
+        }
+        bucket.add(position, entity);
+    }
+
+    /**
+     * Remove an entity from the index (the exact object, not an equal one).
+     */
+    void remove(final String name, final T entity) {
+        ArrayList<T> bucket = buckets.get(name);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == entity) {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) {
+            buckets.remove(name);
+        }
+    }
+
+    /**
+     * @return the first entity with the given name or null if there is none
+     */
+    T first(final String name) {
+        ArrayList<T> bucket = buckets.get(name);
+        if (bucket == null) {
+            return null;
+        }
+        return bucket.get(0);
+    }
+
+    /**
+     * @return the first entity with the given name and rank or null if there is none
+     */
+    T first(final String name, final int entityRank) {
+        ArrayList<T> bucket = buckets.get(name);
+        if (bucket == null) {
+            return null;
+        }
+        for (T entity : bucket) {
+            if (rank.applyAsInt(entity) == entityRank) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if at least one entity has the given name
+     */
+    boolean contains(final String name) {
+        return buckets.containsKey(name);
+    }
+}
@@ -1,11 +1,13 @@
 package audio.lists;
 
 
-import java.util.ArrayList;
 import enums.AudioEnum;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import top.Leaderboard;
 import user.User;
+import user.UserIdSet;
 import audio.files.Song;
 
 @Getter
@@ -13,16 +15,18 @@ import audio.files.Song;
 public class Playlist extends AudioList {
 
     private User owner;
-    private ArrayList<User> followers;
-    private ArrayList<Song> songs;
+    private UserIdSet followers;
+    private TrackList<Song> songs;
     private Integer isPrivate = 0;
     private int timeCreated;
-    private ArrayList<Song> shuffledPlaylist = null;
+    // the leaderboard of the library's playlists, told about every follow
+    @Getter(AccessLevel.NONE)
+    private Leaderboard<Playlist> ranking;
 
     public Playlist(final String name) {
         super(name, AudioEnum.PLAYLIST);
-        followers = new ArrayList<>();
-        songs = new ArrayList<>();
+        followers = new UserIdSet();
+        songs = new TrackList<>();
 
     }
 
@@ -30,8 +34,8 @@ public class Playlist extends AudioList {
         super(name, AudioEnum.PLAYLIST);
         this.owner = owner;
         this.timeCreated = timeCreated;
-        followers = new ArrayList<>();
-        songs = new ArrayList<>();
+        followers = new UserIdSet();
+        songs = new TrackList<>();
     }
 
     // for albums
@@ -39,8 +43,7 @@ public class Playlist extends AudioList {
         final AudioEnum type) {
         super(name, type);
         this.owner = owner;
-        songs = new ArrayList<>();
-        shuffledPlaylist = new ArrayList<>();
+        songs = new TrackList<>();
         this.timeCreated = timeCreated;
     }
 
@@ -49,6 +52,9 @@ public class Playlist extends AudioList {
      */
     public void addFollower(final User user) {
         followers.add(user);
+        if (ranking != null) {
+            ranking.update(this);
+        }
     }
 
     /**
@@ -56,6 +62,9 @@ public class Playlist extends AudioList {
      */
     public void removeFollower(final User user) {
         followers.remove(user);
+        if (ranking != null) {
+            ranking.update(this);
+        }
     }
 
     /**
@@ -2,7 +2,6 @@ package audio.lists;
 
 import audio.files.Episode;
 import enums.AudioEnum;
-import fileio.input.PodcastInput;
 import fileio.input.EpisodeInput;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,22 +12,22 @@ import java.util.ArrayList;
 @Getter
 public class Podcast extends AudioList {
 
-    private ArrayList<Episode> episodes;
+    private TrackList<Episode> episodes;
     private String owner;
 
-    public Podcast(final PodcastInput podcast) {
+    public Podcast(final Catalog.PodcastEntry podcast) {
         super(podcast.getName(), AudioEnum.PODCAST);
-        episodes = new ArrayList<>();
+        episodes = new TrackList<>();
         owner = podcast.getOwner();
         // deep copy, not shallow copy
-        for (EpisodeInput episode : podcast.getEpisodes()) {
+        for (Catalog.EpisodeEntry episode : podcast.getEpisodes()) {
             episodes.add(new Episode(episode));
         }
     }
 
     public Podcast(final String name, final ArrayList<EpisodeInput> episodes, final String owner) {
         super(name, AudioEnum.PODCAST);
-        this.episodes = new ArrayList<>();
+        this.episodes = new TrackList<>();
         for (EpisodeInput episode : episodes) {
             this.episodes.add(new Episode(episode));
         }
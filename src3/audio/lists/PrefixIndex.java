@@ -0,0 +1,170 @@
+package audio.lists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Prefix tree over the names of one kind of library entities, used by the search bar. Every node
+ * keeps the entities whose (normalized) name starts with the node's prefix, in library order, so
+ * a search only visits the entities that match and can stop as soon as it has enough of them.
+ *
+ * @param <T> is the type of the indexed entities
+ */
+public final class PrefixIndex<T> {
+
+    private static final int SEQUENCE_BITS = 32;
+
+    private final UnaryOperator<String> normalizer;
+    private final Node<T> root = new Node<>();
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private long sequence;
+
+    /**
+     * @param normalizer is applied to the names and to the searched prefixes (for example to
+     *                   lowercase them)
+     */
+    public PrefixIndex(final UnaryOperator<String> normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    public PrefixIndex() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * Index an entity after all the other ones.
+     */
+    public void add(final String name, final T item) {
+        add(name, item, 0);
+    }
+
+    /**
+     * Index an entity. The entities are ordered by group, then by the order they were added in.
+     *
+     * @param group is the position of the entity's group (for example the order of an album's
+     *              artist, see {@link #orderOf})
+     */
+    public void add(final String name, final T item, final long group) {
+        Entry<T> entry = new Entry<>(item, normalizer.apply(name),
+            (group << SEQUENCE_BITS) | sequence++);
+        entries.put(item, entry);
+        Node<T> node = root;
+        node.insert(entry);
+        for (int i = 0; i < entry.key.length(); i++) {
+            node = node.children.computeIfAbsent(entry.key.charAt(i), c -> new Node<>());
+            node.insert(entry);
+        }
+    }
+
+    /**
+     * Remove an entity (the exact object, not an equal one) from the index.
+     */
+    public void remove(final T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return;
+        }
+        Node<T> node = root;
+        node.delete(entry);
+        for (int i = 0; i < entry.key.length(); i++) {
+            Node<T> child = node.children.get(entry.key.charAt(i));
+            child.delete(entry);
+            if (child.entries.isEmpty()) {
+                // nothing else goes through this branch
+                node.children.remove(entry.key.charAt(i));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * @return the position of an indexed entity, to be used as the group of other entities
+     */
+    public long orderOf(final T item) {
+        return entries.get(item).order;
+    }
+
+    /**
+     * @return a read-only view of the entities whose name starts with the given prefix, in
+     * library order
+     */
+    public List<T> startingWith(final String prefix) {
+        String key = normalizer.apply(prefix);
+        Node<T> node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Entry<T>> matches = node.entries;
+        return new AbstractList<>() {
+            @Override
+            public T get(final int index) {
+                return matches.get(index).item;
+            }
+
+            @Override
+            public int size() {
+                return matches.size();
+            }
+        };
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final String key;
+        private final long order;
+
+        Entry(final T item, final String key, final long order) {
+            this.item = item;
+            this.key = key;
+            this.order = order;
+        }
+    }
+
+    private static final class Node<T> {
+        private final Map<Character, Node<T>> children = new HashMap<>();
+        private final ArrayList<Entry<T>> entries = new ArrayList<>();
+
+        void insert(final Entry<T> entry) {
+            // new entities usually go last, so look there first
+            int position = entries.size();
+            if (position > 0 && entries.get(position - 1).order > entry.order) {
+                position = search(entry.order);
+            }
+            entries.add(position, entry);
+        }
+
+        void delete(final Entry<T> entry) {
+            int position = search(entry.order);
+            if (position < entries.size() && entries.get(position) == entry) {
+                entries.remove(position);
+            }
+        }
+
+        /**
+         * @return the position of the first entry with an order not lower than the given one
+         */
+        private int search(final long order) {
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (entries.get(middle).order < order) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
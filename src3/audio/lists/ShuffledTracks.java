@@ -0,0 +1,102 @@
+package audio.lists;
+
+import audio.files.AudioFile;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Shuffled order of a frozen snapshot of a track list (see {@link TrackList#snapshot()}), owned
+ * by the player that shuffled it. Only the permutation of the positions is stored, generated from
+ * the seed with the same swaps as {@link java.util.Collections#shuffle}, so the order is the one
+ * it would give. The start times are summed only as far as the lookups reach, and both arrays are
+ * reused when the player shuffles again.
+ *
+ * @param <T> is the type of the tracks
+ */
+public final class ShuffledTracks<T extends AudioFile> extends AbstractList<T>
+    implements Timeline<T> {
+
+    private List<T> tracks = List.of();
+    // order[i] is the position in the snapshot of the i-th shuffled track
+    private int[] order = new int[0];
+    // starts[i] is the start time of the i-th shuffled track, known up to starts[summed]
+    private long[] starts = new long[1];
+    private int summed;
+
+    /**
+     * Shuffle another snapshot, replacing the previous order.
+     *
+     * @param snapshot is the (read-only) list to shuffle
+     * @param seed     is the seed of the shuffle
+     */
+    public void shuffle(final List<T> snapshot, final long seed) {
+        tracks = snapshot;
+        int size = snapshot.size();
+        if (order.length < size) {
+            order = new int[size];
+            starts = new long[size + 1];
+        }
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = size; i > 1; i--) {
+            int other = random.nextInt(i);
+            int position = order[i - 1];
+            order[i - 1] = order[other];
+            order[other] = position;
+        }
+        summed = 0;
+    }
+
+    private long startsUpTo(final int index) {
+        while (summed < index) {
+            starts[summed + 1] = starts[summed] + tracks.get(order[summed]).getDuration();
+            summed++;
+        }
+        return starts[index];
+    }
+
+    @Override
+    public T get(final int index) {
+        Objects.checkIndex(index, size());
+        return tracks.get(order[index]);
+    }
+
+    @Override
+    public int size() {
+        return tracks.size();
+    }
+
+    @Override
+    public long startOf(final int index) {
+        return startsUpTo(index);
+    }
+
+    @Override
+    public long getTotalDuration() {
+        return startsUpTo(size());
+    }
+
+    @Override
+    public int indexAt(final long time) {
+        while (summed < size() && starts[summed] <= time) {
+            startsUpTo(summed + 1);
+        }
+        // the first of the summed tracks that ends after the given time, or size if none does
+        int low = 0;
+        int high = summed;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle + 1] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,298 @@
+package audio.lists;
+
+import audio.files.Filters;
+import audio.files.Song;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index of the songs of a library, used by the song search. Every song gets an ordinal
+ * (the order it was added in, which is also its order in the library) and every tag, genre,
+ * artist and album has the bitmap of the songs that have it. The release years are kept sorted,
+ * so a "<" / ">" filter is a range of years, the lowercase names are in a prefix tree and the
+ * lowercase lyrics are indexed by trigram: the lyrics filter only checks the songs that have
+ * every trigram of the searched text. A search is answered by a {@link SongQueryPlan} built from
+ * the sizes of these postings.
+ */
+public final class SongFilterIndex {
+
+    private static final int GRAM = 3;
+    private static final int CHAR_BITS = 16;
+    // relative costs of checking one song against a filter
+    private static final double BITMAP_COST = 1;
+    private static final double YEAR_COST = 1.5;
+    private static final double NAME_COST = 2;
+    private static final double LYRICS_COST = 20;
+
+    // the songs by ordinal, null once removed
+    private final ArrayList<Song> songs = new ArrayList<>();
+    private final Map<Song, Integer> ordinals = new IdentityHashMap<>();
+    private final Posting live = new Posting();
+    private final Map<String, Posting> tags = new HashMap<>();
+    private final Map<String, Posting> genres = new HashMap<>();
+    private final Map<String, Posting> artists = new HashMap<>();
+    private final Map<String, Posting> albums = new HashMap<>();
+    private final TreeMap<Integer, Posting> years = new TreeMap<>();
+    private final PrefixIndex<Song> names = new PrefixIndex<>(String::toLowerCase);
+    // the lowercase names and lyrics by ordinal, null once removed
+    private final ArrayList<String> lowerNames = new ArrayList<>();
+    private final ArrayList<String> lyrics = new ArrayList<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+
+    /**
+     * Index a song after all the other ones.
+     */
+    void add(final Song song) {
+        int ordinal = songs.size();
+        songs.add(song);
+        ordinals.put(song, ordinal);
+        live.set(ordinal);
+        for (String tag : song.getTags()) {
+            tags.computeIfAbsent(tag, key -> new Posting()).set(ordinal);
+        }
+        genres.computeIfAbsent(song.getGenre().toLowerCase(), key -> new Posting()).set(ordinal);
+        artists.computeIfAbsent(song.getArtist(), key -> new Posting()).set(ordinal);
+        albums.computeIfAbsent(song.getAlbum(), key -> new Posting()).set(ordinal);
+        years.computeIfAbsent(song.getReleaseYear(), key -> new Posting()).set(ordinal);
+        names.add(song.getName(), song);
+        lowerNames.add(song.getName().toLowerCase());
+        String lowerLyrics = song.getLyrics().toLowerCase();
+        lyrics.add(lowerLyrics);
+        for (int i = 0; i + GRAM <= lowerLyrics.length(); i++) {
+            trigrams.computeIfAbsent(trigram(lowerLyrics, i), key -> new Postings())
+                .append(ordinal);
+        }
+    }
+
+    /**
+     * Remove a song (the exact object, not an equal one) from the index.
+     */
+    void remove(final Song song) {
+        Integer ordinal = ordinals.remove(song);
+        if (ordinal == null) {
+            return;
+        }
+        songs.set(ordinal, null);
+        live.clear(ordinal);
+        for (String tag : song.getTags()) {
+            clear(tags, tag, ordinal);
+        }
+        clear(genres, song.getGenre().toLowerCase(), ordinal);
+        clear(artists, song.getArtist(), ordinal);
+        clear(albums, song.getAlbum(), ordinal);
+        clear(years, song.getReleaseYear(), ordinal);
+        names.remove(song);
+        lowerNames.set(ordinal, null);
+        String lowerLyrics = lyrics.set(ordinal, null);
+        for (int i = 0; i + GRAM <= lowerLyrics.length(); i++) {
+            Long key = trigram(lowerLyrics, i);
+            Postings songsWithTrigram = trigrams.get(key);
+            if (songsWithTrigram != null) {
+                songsWithTrigram.remove(ordinal);
+                if (songsWithTrigram.size == 0) {
+                    trigrams.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long trigram(final String text, final int start) {
+        long key = 0;
+        for (int i = start; i < start + GRAM; i++) {
+            key = (key << CHAR_BITS) | text.charAt(i);
+        }
+        return key;
+    }
+
+    private static <K> void clear(final Map<K, Posting> postings, final K key, final int ordinal) {
+        Posting songsWithKey = postings.get(key);
+        if (songsWithKey == null) {
+            return;
+        }
+        songsWithKey.clear(ordinal);
+        if (songsWithKey.count == 0) {
+            postings.remove(key);
+        }
+    }
+
+    /**
+     * @return the song with the given ordinal, or null if it was removed
+     */
+    public Song get(final int ordinal) {
+        return songs.get(ordinal);
+    }
+
+    /**
+     * Plan a search with the given filters.
+     */
+    public SongQueryPlan plan(final Filters filters) {
+        List<SongQueryPlan.Step> steps = new ArrayList<>();
+        if (filters.getName() != null) {
+            String prefix = filters.getName().toLowerCase();
+            List<Song> matches = names.startingWith(filters.getName());
+            steps.add(new SongQueryPlan.Step("name", matches.size(), NAME_COST,
+                ordinal -> lowerNames.get(ordinal).startsWith(prefix),
+                () -> matches.stream().mapToInt(ordinals::get).iterator(), null));
+        }
+        if (filters.getTags() != null) {
+            for (String tag : filters.getTags()) {
+                steps.add(bitmapStep("tag " + tag, tags.get(tag)));
+            }
+        }
+        if (filters.getGenre() != null) {
+            steps.add(bitmapStep("genre", genres.get(filters.getGenre().toLowerCase())));
+        }
+        if (filters.getArtist() != null) {
+            steps.add(bitmapStep("artist", artists.get(filters.getArtist())));
+        }
+        if (filters.getAlbum() != null) {
+            steps.add(bitmapStep("album", albums.get(filters.getAlbum())));
+        }
+        if (filters.getReleaseYear() != null) {
+            steps.add(yearStep(filters.getReleaseYear()));
+        }
+        if (filters.getLyrics() != null) {
+            steps.add(lyricsStep(filters.getLyrics().toLowerCase()));
+        }
+        SongQueryPlan.Step all = new SongQueryPlan.Step("all", live.count, 0,
+            ordinal -> true, live::iterator, null);
+        return new SongQueryPlan(steps, all, this::get);
+    }
+
+    private static SongQueryPlan.Step bitmapStep(final String name, final Posting posting) {
+        if (posting == null) {
+            return emptyStep(name, BITMAP_COST);
+        }
+        return new SongQueryPlan.Step(name, posting.count, BITMAP_COST, posting.songs::get,
+            posting::iterator, null);
+    }
+
+    private static SongQueryPlan.Step emptyStep(final String name, final double cost) {
+        return new SongQueryPlan.Step(name, 0, cost, ordinal -> false,
+            () -> IntStream.empty().iterator(), null);
+    }
+
+    private SongQueryPlan.Step yearStep(final String releaseYear) {
+        int year = Integer.parseInt(releaseYear.substring(1));
+        boolean before = releaseYear.charAt(0) == '<';
+        NavigableMap<Integer, Posting> range;
+        if (before) {
+            range = years.headMap(year, false);
+        } else {
+            range = years.tailMap(year, false);
+        }
+        long estimate = 0;
+        for (Posting songsOfYear : range.values()) {
+            estimate += songsOfYear.count;
+        }
+        return new SongQueryPlan.Step("releaseYear", estimate, YEAR_COST, ordinal -> {
+            int songYear = songs.get(ordinal).getReleaseYear();
+            return before ? songYear < year : songYear > year;
+        }, () -> {
+            BitSet inRange = new BitSet();
+            for (Posting songsOfYear : range.values()) {
+                inRange.or(songsOfYear.songs);
+            }
+            return inRange.stream().iterator();
+        }, null);
+    }
+
+    private SongQueryPlan.Step lyricsStep(final String text) {
+        if (text.length() < GRAM) {
+            // too short to have a trigram, every song could match
+            return new SongQueryPlan.Step("lyrics", live.count, LYRICS_COST,
+                ordinal -> lyrics.get(ordinal).contains(text), live::iterator,
+                ordinal -> lyrics.get(ordinal).contains(text));
+        }
+        // the songs having the rarest trigram of the text are the candidates, the other
+        // trigrams and the text itself are checked on them
+        ArrayList<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            Postings songsWithTrigram = trigrams.get(trigram(text, i));
+            if (songsWithTrigram == null) {
+                return emptyStep("lyrics", LYRICS_COST);
+            }
+            lists.add(songsWithTrigram);
+        }
+        lists.sort((postings1, postings2) -> postings1.size - postings2.size);
+        Postings rarest = lists.get(0);
+        return new SongQueryPlan.Step("lyrics", rarest.size, LYRICS_COST,
+            ordinal -> lyrics.get(ordinal).contains(text),
+            () -> Arrays.stream(rarest.ordinals, 0, rarest.size).iterator(), ordinal -> {
+                for (int j = 1; j < lists.size(); j++) {
+                    if (!lists.get(j).contains(ordinal)) {
+                        return false;
+                    }
+                }
+                return lyrics.get(ordinal).contains(text);
+            });
+    }
+
+    /**
+     * Bitmap of the songs having a value, with their number.
+     */
+    private static final class Posting {
+        private final BitSet songs = new BitSet();
+        private int count;
+
+        void set(final int ordinal) {
+            if (!songs.get(ordinal)) {
+                songs.set(ordinal);
+                count++;
+            }
+        }
+
+        void clear(final int ordinal) {
+            if (songs.get(ordinal)) {
+                songs.clear(ordinal);
+                count--;
+            }
+        }
+
+        PrimitiveIterator.OfInt iterator() {
+            return songs.stream().iterator();
+        }
+    }
+
+    /**
+     * Sorted ordinals of the songs having a trigram. Most trigrams are rare, so this is much
+     * smaller than a bitmap over all the songs.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        void append(final int ordinal) {
+            // ordinals come in increasing order, so a repeated trigram is always the last one
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        void remove(final int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+                size--;
+            }
+        }
+
+        boolean contains(final int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package audio.lists;
+
+import audio.files.Song;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Execution plan of a song search. Every filter of the search is a step with an estimate of the
+ * number of songs passing it and a cost for checking one song. The most selective step drives
+ * the search (only its songs are visited, in library order) and the others are checked on them,
+ * the cheapest and most selective first, stopping at the first one that fails. The counters of
+ * the last run are collected by the search cache, for diagnostics.
+ */
+@Getter
+public final class SongQueryPlan {
+
+    private final String driver;
+    private final List<String> checks = new ArrayList<>();
+    private final long estimate;
+    private int candidates;
+    private int evaluations;
+    private int results;
+
+    @Getter(AccessLevel.NONE)
+    private final Step driverStep;
+    @Getter(AccessLevel.NONE)
+    private final List<Step> tests;
+    @Getter(AccessLevel.NONE)
+    private final IntFunction<Song> songs;
+
+    /**
+     * @param steps are the filters of the search
+     * @param all   is the step passed by every song, used when there are no filters
+     * @param songs gives the song with an ordinal
+     */
+    SongQueryPlan(final List<Step> steps, final Step all, final IntFunction<Song> songs) {
+        this.songs = songs;
+        tests = new ArrayList<>(steps);
+        Step best = all;
+        for (Step step : tests) {
+            if (step.estimate < best.estimate
+                || step.estimate == best.estimate && step.cost < best.cost) {
+                best = step;
+            }
+        }
+        driverStep = best;
+        tests.remove(best);
+        // a check that fails often and costs little should come first
+        double total = Math.max(1, all.estimate);
+        tests.sort(Comparator.comparingDouble(step ->
+            step.cost / Math.max(Double.MIN_VALUE, 1 - step.estimate / total)));
+        driver = driverStep.name;
+        estimate = driverStep.estimate;
+        for (Step step : tests) {
+            checks.add(step.name);
+        }
+    }
+
+    /**
+     * Run the search.
+     *
+     * @param limit is the maximum number of songs returned
+     * @return the first songs (in library order) that pass all the filters
+     */
+    public List<Song> run(final int limit) {
+        candidates = 0;
+        evaluations = 0;
+        List<Song> found = new ArrayList<>();
+        PrimitiveIterator.OfInt iterator = driverStep.candidates.get();
+        while (found.size() < limit && iterator.hasNext()) {
+            int ordinal = iterator.nextInt();
+            candidates++;
+            boolean passes = driverStep.verify == null || driverStep.verify.test(ordinal);
+            for (int i = 0; i < tests.size() && passes; i++) {
+                evaluations++;
+                passes = tests.get(i).test.test(ordinal);
+            }
+            if (passes) {
+                found.add(songs.apply(ordinal));
+            }
+        }
+        results = found.size();
+        return found;
+    }
+
+    @Override
+    public String toString() {
+        return "drive by " + driver + " (~" + estimate + " songs), then check " + checks
+            + ": visited " + candidates + ", checked " + evaluations + ", found " + results;
+    }
+
+    /**
+     * One filter of a song search.
+     */
+    static final class Step {
+        private final String name;
+        private final long estimate;
+        private final double cost;
+        private final IntPredicate test;
+        private final Supplier<PrimitiveIterator.OfInt> candidates;
+        private final IntPredicate verify;
+
+        /**
+         * @param name       describes the filter
+         * @param estimate   is the (estimated) number of songs that pass the filter
+         * @param cost       is the relative cost of checking a song
+         * @param test       checks a song (by ordinal)
+         * @param candidates gives, in increasing order, the ordinals of the songs that could pass
+         * @param verify     checks the candidates when they are not exact, or null if they are
+         */
+        Step(final String name, final long estimate, final double cost, final IntPredicate test,
+            final Supplier<PrimitiveIterator.OfInt> candidates, final IntPredicate verify) {
+            this.name = name;
+            this.estimate = estimate;
+            this.cost = cost;
+            this.test = test;
+            this.candidates = candidates;
+            this.verify = verify;
+        }
+    }
+}
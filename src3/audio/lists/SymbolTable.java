@@ -0,0 +1,50 @@
+package audio.lists;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense ids of the names of one kind of entities (users, songs, genres, ...). A name gets the next
+ * int the first time it is seen and keeps it, so counters and histories are keyed by small ints
+ * and every name is stored once, here.
+ */
+public final class SymbolTable {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /**
+     * @return the id of the name, a new one if the name wasn't seen before
+     */
+    public int intern(final String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * @return the id of the name, or -1 if the name wasn't seen before
+     */
+    public int idOf(final String name) {
+        return ids.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the name with the given id (the same object for all the entities having it)
+     */
+    public String nameOf(final int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return the number of names (every id is lower than it)
+     */
+    public int size() {
+        return names.size();
+    }
+}
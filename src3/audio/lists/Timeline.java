@@ -0,0 +1,29 @@
+package audio.lists;
+
+import audio.files.AudioFile;
+
+import java.util.List;
+
+/**
+ * Tracks played one after the other, which know where every track starts.
+ *
+ * @param <T> is the type of the tracks
+ */
+public interface Timeline<T extends AudioFile> extends List<T> {
+
+    /**
+     * @return the time at which the track with the given index starts
+     */
+    long startOf(int index);
+
+    /**
+     * @return the total duration of the tracks
+     */
+    long getTotalDuration();
+
+    /**
+     * @return the index of the track playing at the given time from the start of the list (the
+     * first track that ends after it), or size() if the list ended by then
+     */
+    int indexAt(long time);
+}
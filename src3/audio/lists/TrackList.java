@@ -0,0 +1,91 @@
+package audio.lists;
+
+import audio.files.AudioFile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * List of the tracks (songs or episodes) of a playlist, album or podcast that also knows where
+ * every track starts. The start times are prefix sums of the durations, rebuilt on the first
+ * lookup after the list changed, so the track playing at any point of the list is found with a
+ * binary search instead of walking the tracks.
+ *
+ * @param <T> is the type of the tracks
+ */
+public final class TrackList<T extends AudioFile> extends ArrayList<T> implements Timeline<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    // starts[i] is the start time of track i, starts[size()] is the total duration
+    private transient long[] starts;
+    private transient int startsVersion = -1;
+    private transient List<T> snapshot;
+    private transient int snapshotVersion = -1;
+
+    public TrackList() {
+        super();
+    }
+
+    public TrackList(final Collection<? extends T> tracks) {
+        super(tracks);
+    }
+
+    @Override
+    public T set(final int index, final T track) {
+        T old = super.set(index, track);
+        // replacing a track changes the start times, but isn't counted by ArrayList
+        modCount++;
+        return old;
+    }
+
+    /**
+     * @return a read-only copy of the tracks, shared by all the callers until the list changes
+     */
+    public List<T> snapshot() {
+        if (snapshot == null || snapshotVersion != modCount) {
+            snapshot = List.copyOf(this);
+            snapshotVersion = modCount;
+        }
+        return snapshot;
+    }
+
+    private long[] starts() {
+        if (starts == null || startsVersion != modCount) {
+            starts = new long[size() + 1];
+            for (int i = 0; i < size(); i++) {
+                starts[i + 1] = starts[i] + get(i).getDuration();
+            }
+            startsVersion = modCount;
+        }
+        return starts;
+    }
+
+    @Override
+    public long startOf(final int index) {
+        return starts()[index];
+    }
+
+    @Override
+    public long getTotalDuration() {
+        return starts()[size()];
+    }
+
+    @Override
+    public int indexAt(final long time) {
+        // the first of the tracks that ends after the given time, or size if none does
+        long[] trackStarts = starts();
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (trackStarts[middle + 1] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
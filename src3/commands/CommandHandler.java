@@ -0,0 +1,20 @@
+package commands;
+
+import output.OutputSink;
+import user.User;
+
+/**
+ * Executes one kind of command for the user that gave it.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * Execute the command.
+     *
+     * @param command is the decoded command
+     * @param user    is the user that gave the command (null for the global commands)
+     * @param outputs is where the output of the command is written
+     */
+    void handle(Command command, User user, OutputSink outputs);
+}
@@ -0,0 +1,50 @@
+package commands;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads the commands of an input file one at a time, straight from the JSON stream. Only the
+ * command that is currently being executed is kept in memory, no matter how long the file is.
+ */
+public final class CommandReader implements Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader commandReader;
+
+    public CommandReader(final ObjectMapper mapper, final File file) throws IOException {
+        parser = mapper.getFactory().createParser(file);
+        commandReader = mapper.readerFor(Command.class);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException(file.getName() + " is not an array of commands.");
+        }
+    }
+
+    /**
+     * Decode the next command from the input.
+     *
+     * @return the next command or null if the whole input was consumed
+     * @throws IOException in case the input can't be read or isn't a valid command
+     */
+    public Command read() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        return commandReader.readValue(parser);
+    }
+
+    /**
+     * Close the underlying input file.
+     */
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,117 @@
+package commands;
+
+import audio.lists.Library;
+import enums.Opcode;
+import output.OutputSink;
+import top.TopsClass;
+import user.User;
+
+import java.util.EnumMap;
+
+/**
+ * The handler of every opcode, built once per run with the run's library and tops bound in. The
+ * user's own targets (player, search bar) are reached through the user given to dispatch. The
+ * table also counts how many commands of each opcode it dispatched.
+ */
+public final class CommandTable {
+
+    private final EnumMap<Opcode, CommandHandler> handlers = new EnumMap<>(Opcode.class);
+    private final int[] counts = new int[Opcode.values().length];
+
+    public CommandTable(final Library library, final TopsClass tops) {
+        handlers.put(Opcode.SEARCH, (c, u, out) -> u.getSearchBar().search(c, library, u, out));
+        handlers.put(Opcode.SELECT, (c, u, out) -> u.getSearchBar().select(c, out, u));
+        handlers.put(Opcode.LOAD, (c, u, out) -> u.getPlayer().load(c, u, out, library));
+        handlers.put(Opcode.STATUS, (c, u, out) -> u.getPlayer().status(c, u, out, library));
+        handlers.put(Opcode.PLAY_PAUSE, (c, u, out) -> u.getPlayer().playPause(c, u, out, library));
+        handlers.put(Opcode.CREATE_PLAYLIST, (c, u, out) -> u.createPlaylist(c, library, u, out));
+        handlers.put(Opcode.ADD_REMOVE_IN_PLAYLIST, (c, u, out) ->
+            u.getPlayer().addRemoveInPlaylist(c, u, out, library));
+        handlers.put(Opcode.LIKE, (c, u, out) -> u.like(c, u, out));
+        handlers.put(Opcode.SHOW_PLAYLISTS, (c, u, out) -> u.showPlaylists(c, u, out));
+        handlers.put(Opcode.SHOW_PREFERRED_SONGS, (c, u, out) -> u.showPreferredSongs(c, u, out));
+        handlers.put(Opcode.FOLLOW, (c, u, out) -> u.follow(c, u, out));
+        handlers.put(Opcode.SWITCH_VISIBILITY, (c, u, out) -> u.switchVisibility(c, u, out));
+        handlers.put(Opcode.REPEAT, (c, u, out) -> u.getPlayer().repeat(c, u, out, library));
+        handlers.put(Opcode.SHUFFLE, (c, u, out) -> u.getPlayer().shuffle(c, u, out, library));
+        handlers.put(Opcode.NEXT, (c, u, out) -> u.getPlayer().next(c, u, out, library));
+        handlers.put(Opcode.PREV, (c, u, out) -> u.getPlayer().prev(c, u, out, library));
+        handlers.put(Opcode.FORWARD, (c, u, out) -> u.getPlayer().forward(c, u, out, library));
+        handlers.put(Opcode.BACKWARD, (c, u, out) -> u.getPlayer().backward(c, u, out, library));
+        handlers.put(Opcode.GET_TOP5_SONGS, (c, u, out) -> tops.getTop5Songs(c, library, out));
+        handlers.put(Opcode.GET_TOP5_PLAYLISTS, (c, u, out) ->
+            tops.getTop5Playlists(c, library, out));
+        handlers.put(Opcode.SWITCH_CONNECTION_STATUS, (c, u, out) ->
+            u.switchConnectionStatus(c, u, out));
+        handlers.put(Opcode.GET_ONLINE_USERS, (c, u, out) -> library.getOnlineUsers(c, out));
+        handlers.put(Opcode.ADD_ALBUM, (c, u, out) -> u.addAlbum(c, library, u, out));
+        handlers.put(Opcode.SHOW_ALBUMS, (c, u, out) -> u.showAlbums(c, u, out));
+        handlers.put(Opcode.ADD_USER, (c, u, out) -> library.addUser(c, library, out));
+        handlers.put(Opcode.PRINT_CURRENT_PAGE, (c, u, out) -> u.printCurrentPage(c, u, out));
+        handlers.put(Opcode.ADD_MERCH, (c, u, out) -> u.addMerch(c, out));
+        handlers.put(Opcode.ADD_EVENT, (c, u, out) -> u.addEvent(c, out));
+        handlers.put(Opcode.GET_ALL_USERS, (c, u, out) -> library.getAllUsers(c, out));
+        handlers.put(Opcode.DELETE_USER, (c, u, out) -> library.deleteUser(c, out, library));
+        handlers.put(Opcode.ADD_PODCAST, (c, u, out) -> u.addPodcast(c, library, u, out));
+        handlers.put(Opcode.ADD_ANNOUNCEMENT, (c, u, out) -> u.addAnnouncement(c, library, u, out));
+        handlers.put(Opcode.REMOVE_ANNOUNCEMENT, (c, u, out) ->
+            u.removeAnnouncement(c, library, u, out));
+        handlers.put(Opcode.SHOW_PODCASTS, (c, u, out) -> u.showPodcasts(c, u, out));
+        handlers.put(Opcode.REMOVE_ALBUM, (c, u, out) -> u.removeAlbum(c, u, library, out));
+        handlers.put(Opcode.CHANGE_PAGE, (c, u, out) -> u.changePage(c, u, out));
+        handlers.put(Opcode.REMOVE_PODCAST, (c, u, out) -> u.removePodcast(c, u, library, out));
+        handlers.put(Opcode.REMOVE_EVENT, (c, u, out) -> u.removeEvent(c, u, library, out));
+        handlers.put(Opcode.GET_TOP5_ALBUMS, (c, u, out) -> tops.getTop5Albums(c, library, out));
+        handlers.put(Opcode.GET_TOP5_ARTISTS, (c, u, out) -> tops.getTop5Artists(c, library, out));
+        handlers.put(Opcode.WRAPPED, (c, u, out) -> u.wrapped(c, u, out, library));
+        handlers.put(Opcode.SUBSCRIBE, (c, u, out) -> u.getSearchBar().subscribe(c, out, u));
+        handlers.put(Opcode.GET_NOTIFICATIONS, (c, u, out) -> u.getUserNotifications(c, out));
+        handlers.put(Opcode.BUY_MERCH, (c, u, out) -> u.buyMerch(c, out));
+        handlers.put(Opcode.SEE_MERCH, (c, u, out) -> u.seeMerch(c, out));
+        handlers.put(Opcode.AD_BREAK, (c, u, out) -> u.adBreak(c, u, out, library));
+        handlers.put(Opcode.BUY_PREMIUM, (c, u, out) -> u.buyPremium(c, out));
+        handlers.put(Opcode.CANCEL_PREMIUM, (c, u, out) -> u.cancelPremium(c, out));
+        handlers.put(Opcode.UPDATE_RECOMMENDATIONS, (c, u, out) -> u.updateRecommendations(c, out));
+        handlers.put(Opcode.PREVIOUS_PAGE, (c, u, out) -> u.previousPage(c, u, out));
+        handlers.put(Opcode.NEXT_PAGE, (c, u, out) -> u.nextPage(c, u, out));
+        handlers.put(Opcode.LOAD_RECOMMENDATIONS, (c, u, out) ->
+            u.getPlayer().loadRecommendations(c, u, out, library));
+    }
+
+    /**
+     * Execute a command through the handler of its opcode. Commands without a handler are
+     * ignored.
+     *
+     * @param command is the decoded command
+     * @param user    is the user that gave the command
+     * @param outputs is where the output of the command is written
+     */
+    public void dispatch(final Command command, final User user, final OutputSink outputs) {
+        counts[command.getOpcode().ordinal()]++;
+        CommandHandler handler = handlers.get(command.getOpcode());
+        if (handler != null) {
+            handler.handle(command, user, outputs);
+        }
+    }
+
+    /**
+     * @param opcode is the opcode we want the count of
+     * @return how many commands with this opcode were dispatched so far
+     */
+    public int getCount(final Opcode opcode) {
+        return counts[opcode.ordinal()];
+    }
+
+    /**
+     * @return the number of dispatched commands of every opcode that was used at least once
+     */
+    public EnumMap<Opcode, Integer> getCounts() {
+        EnumMap<Opcode, Integer> used = new EnumMap<>(Opcode.class);
+        for (Opcode opcode : Opcode.values()) {
+            if (counts[opcode.ordinal()] > 0) {
+                used.put(opcode, counts[opcode.ordinal()]);
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,97 @@
+package enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The commands that can be given through the input, identified by their name in the input file.
+ * The name is resolved to an opcode only once, when the command is decoded.
+ */
+public enum Opcode {
+    SEARCH("search"),
+    SELECT("select"),
+    LOAD("load"),
+    STATUS("status"),
+    PLAY_PAUSE("playPause"),
+    CREATE_PLAYLIST("createPlaylist"),
+    ADD_REMOVE_IN_PLAYLIST("addRemoveInPlaylist"),
+    LIKE("like"),
+    SHOW_PLAYLISTS("showPlaylists"),
+    SHOW_PREFERRED_SONGS("showPreferredSongs"),
+    FOLLOW("follow"),
+    SWITCH_VISIBILITY("switchVisibility"),
+    REPEAT("repeat"),
+    SHUFFLE("shuffle"),
+    NEXT("next"),
+    PREV("prev"),
+    FORWARD("forward"),
+    BACKWARD("backward"),
+    GET_TOP5_SONGS("getTop5Songs"),
+    GET_TOP5_PLAYLISTS("getTop5Playlists"),
+    SWITCH_CONNECTION_STATUS("switchConnectionStatus"),
+    GET_ONLINE_USERS("getOnlineUsers"),
+    ADD_ALBUM("addAlbum"),
+    SHOW_ALBUMS("showAlbums"),
+    ADD_USER("addUser"),
+    PRINT_CURRENT_PAGE("printCurrentPage"),
+    ADD_MERCH("addMerch"),
+    ADD_EVENT("addEvent"),
+    GET_ALL_USERS("getAllUsers"),
+    DELETE_USER("deleteUser"),
+    ADD_PODCAST("addPodcast"),
+    ADD_ANNOUNCEMENT("addAnnouncement"),
+    REMOVE_ANNOUNCEMENT("removeAnnouncement"),
+    SHOW_PODCASTS("showPodcasts"),
+    REMOVE_ALBUM("removeAlbum"),
+    CHANGE_PAGE("changePage"),
+    REMOVE_PODCAST("removePodcast"),
+    REMOVE_EVENT("removeEvent"),
+    GET_TOP5_ALBUMS("getTop5Albums"),
+    GET_TOP5_ARTISTS("getTop5Artists"),
+    WRAPPED("wrapped"),
+    SUBSCRIBE("subscribe"),
+    GET_NOTIFICATIONS("getNotifications"),
+    BUY_MERCH("buyMerch"),
+    SEE_MERCH("seeMerch"),
+    AD_BREAK("adBreak"),
+    BUY_PREMIUM("buyPremium"),
+    CANCEL_PREMIUM("cancelPremium"),
+    UPDATE_RECOMMENDATIONS("updateRecommendations"),
+    PREVIOUS_PAGE("previousPage"),
+    NEXT_PAGE("nextPage"),
+    LOAD_RECOMMENDATIONS("loadRecommendations"),
+    UNKNOWN(null);
+
+    private static final Map<String, Opcode> BY_NAME = new HashMap<>();
+
+    static {
+        for (Opcode opcode : values()) {
+            if (opcode.commandName != null) {
+                BY_NAME.put(opcode.commandName, opcode);
+            }
+        }
+    }
+
+    private final String commandName;
+
+    Opcode(final String commandName) {
+        this.commandName = commandName;
+    }
+
+    /**
+     * @return the name of the command, as it appears in the input
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * Find the opcode of a command.
+     *
+     * @param commandName is the name of the command from the input
+     * @return the opcode or UNKNOWN if there is no such command
+     */
+    public static Opcode fromName(final String commandName) {
+        return BY_NAME.getOrDefault(commandName, UNKNOWN);
+    }
+}
@@ -0,0 +1,29 @@
+package enums;
+
+/**
+ * The collections of the library a search can look into, one for every search type. Each of them
+ * has a version in the library, changed whenever the results of its searches could change.
+ */
+public enum SearchScope {
+    SONG,
+    PODCAST,
+    PLAYLIST,
+    ALBUM,
+    ARTIST,
+    HOST;
+
+    /**
+     * @return the scope searched by the given search type, or null if the type is unknown
+     */
+    public static SearchScope fromType(final String type) {
+        return switch (type) {
+            case "song" -> SONG;
+            case "podcast" -> PODCAST;
+            case "playlist" -> PLAYLIST;
+            case "album" -> ALBUM;
+            case "artist" -> ARTIST;
+            case "host" -> HOST;
+            default -> null;
+        };
+    }
+}
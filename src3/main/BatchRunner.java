@@ -0,0 +1,84 @@
+package main;
+
+import audio.lists.Catalog;
+import checker.CheckerConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a batch of input files on a fixed pool of worker threads. The runs share nothing but the
+ * (immutable) catalog: every one of them has its own Library and writes its own result file.
+ */
+public final class BatchRunner {
+
+    private final Catalog catalog;
+    private final int threads;
+
+    public BatchRunner(final Catalog catalog, final int threads) {
+        this.catalog = catalog;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Run every input file and wait for all of them to finish. The result of an input is written
+     * to its out_ file from the result directory.
+     *
+     * @param inputs are the names of the input files
+     * @throws IOException in case one of the runs couldn't read / write its files
+     */
+    public void run(final List<String> inputs) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads,
+            Math.max(1, inputs.size())));
+        try {
+            List<Future<Void>> runs = new ArrayList<>();
+            for (String input : inputs) {
+                runs.add(pool.submit(() -> {
+                    Main.action(catalog, input, CheckerConstants.OUT_PATH + input);
+                    return null;
+                }));
+            }
+            // wait for every run, even if one of them failed, then report the first failure
+            Throwable failure = null;
+            for (Future<Void> run : runs) {
+                try {
+                    run.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the runs.", e);
+                }
+            }
+            if (failure != null) {
+                throw asIOException(failure);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static IOException asIOException(final Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+}
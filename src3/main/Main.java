@@ -1,25 +1,27 @@
 package main;
 
 
+import audio.lists.Catalog;
 import audio.lists.Library;
 import checker.Checker;
 import checker.CheckerConstants;
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import commands.Command;
-import fileio.input.LibraryInput;
+import commands.CommandReader;
+import commands.CommandTable;
+import enums.Opcode;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import output.MessageOutput;
+import output.OutputSink;
+import searchbar.SearchCache;
 import top.TopsClass;
 import user.User;
 
@@ -28,6 +30,10 @@ import user.User;
  */
 public final class Main {
 
+    // set (-Ddiagnostics) to print the counters of every run to stderr
+    private static final boolean DIAGNOSTICS = Boolean.getBoolean("diagnostics");
+    private static final double PERCENT = 100.0;
+
     /**
      * for coding style
      */
@@ -53,6 +59,7 @@ public final class Main {
         }
         Files.createDirectories(path);
 
+        List<String> inputs = new ArrayList<>();
         for (File file : Objects.requireNonNull(directory.listFiles())) {
             if (file.getName().startsWith("library")) {
                 continue;
@@ -62,61 +69,87 @@ public final class Main {
             File out = new File(filepath);
             boolean isCreated = out.createNewFile();
             if (isCreated) {
-                action(file.getName(), filepath);
+                inputs.add(file.getName());
             }
         }
+        // the input files are independent, so they are run in parallel
+        new BatchRunner(loadCatalog(), Runtime.getRuntime().availableProcessors()).run(inputs);
 
         Checker.calculateScore();
     }
 
+    /**
+     * Parse the library file, the result can be reused by any number of runs (each of them still
+     * builds its own Library from it).
+     *
+     * @return the base catalog
+     * @throws IOException in case the library file can't be read
+     */
+    public static Catalog loadCatalog() throws IOException {
+        return Catalog.load(new ObjectMapper(),
+            new File(CheckerConstants.TESTS_PATH + "library/library.json"));
+    }
+
     /**
      * @param filePath1 for input file
      * @param filePath2 for output file
      * @throws IOException in case of exceptions to reading / writing
      */
     public static void action(final String filePath1,
+        final String filePath2) throws IOException {
+        action(loadCatalog(), filePath1, filePath2);
+    }
+
+    /**
+     * @param catalog   is the already parsed library
+     * @param filePath1 for input file
+     * @param filePath2 for output file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void action(final Catalog catalog, final String filePath1,
         final String filePath2) throws IOException {
         ObjectMapper objectMapper = new ObjectMapper();
-        LibraryInput library = objectMapper.readValue(new File(CheckerConstants.TESTS_PATH
-                + "library/library.json"),
-            LibraryInput.class);
-        ArrayNode outputs = objectMapper.createArrayNode();
-        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-
-        Library.reset();
-
-        Library myLibrary = Library.getInstance(library);
-
-        List<Command> commands = objectMapper.readValue(
-            new File(CheckerConstants.TESTS_PATH + filePath1), new TypeReference<>() {
-            });
-
-        TopsClass topsClass = new TopsClass();
-        for (Command command : commands) {
-            User user = myLibrary.findUser(command.getUsername());
-            if (user == null && command.getUsername() != null) {
-                // if the user doesn't exist, create it
-                if (command.getCommand().equals("addUser")) {
-                    myLibrary.addUser(command, myLibrary, outputs);
+        Library myLibrary = new Library(catalog);
+
+        CommandTable commandTable = new CommandTable(myLibrary, new TopsClass());
+        // commands are decoded and executed one at a time, the log is never fully in memory
+        // and every output is written to the result file as soon as its command finished
+        try (CommandReader commands = new CommandReader(objectMapper,
+            new File(CheckerConstants.TESTS_PATH + filePath1));
+            OutputSink outputs = new OutputSink(new File(filePath2))) {
+            for (Command command = commands.read(); command != null; command = commands.read()) {
+                User user = myLibrary.findUser(command.getUsername());
+                if (user == null && command.getUsername() != null) {
+                    // if the user doesn't exist, create it
+                    if (command.getOpcode() == Opcode.ADD_USER) {
+                        myLibrary.addUser(command, myLibrary, outputs);
+                    } else {
+                        // user doesnt exist
+                        outputs.add(new MessageOutput(command.getCommand(),
+                            command.getUsername(), command.getTimestamp(),
+                            "The username " + command.getUsername() + " doesn't exist."));
+                    }
                 } else {
-                    // user doesnt exist
-                    ObjectNode objectNode = objectMapper.createObjectNode();
-                    objectNode.put("command", command.getCommand());
-                    objectNode.put("user", command.getUsername());
-                    objectNode.put("timestamp", command.getTimestamp());
-                    objectNode.put("message", "The username " + command.getUsername()
-                        + " doesn't exist.");
-                    outputs.add(objectNode);
+                    commandTable.dispatch(command, user, outputs);
+                    if (user != null) {
+                        myLibrary.playerChanged(user);
+                    }
+                    myLibrary.setLastTimestamp(command.getTimestamp());
                 }
-            } else {
-                command.execute(command, myLibrary, user, topsClass, outputs);
-                myLibrary.setLastTimestamp(command.getTimestamp());
             }
+            myLibrary.endProgram(outputs);
         }
-        myLibrary.endProgram(outputs);
-
-        ObjectWriter objectWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        if (DIAGNOSTICS) {
+            printDiagnostics(filePath1, myLibrary);
+        }
+    }
 
-        objectWriter.writeValue(new File(filePath2), outputs);
+    private static void printDiagnostics(final String input, final Library library) {
+        SearchCache cache = library.getSearchCache();
+        System.err.println(input + ": search cache hit rate "
+            + Math.round(cache.getHitRate() * PERCENT) + "%, " + cache.getSongSearches()
+            + " song searches (visited " + cache.getSongsVisited() + ", checked "
+            + cache.getSongsChecked() + "), last delete removed "
+            + library.getLastDeleteCost() + " references");
     }
 }
@@ -0,0 +1,23 @@
+package output;
+
+import lombok.Getter;
+
+/**
+ * The answer to the commands that add or delete accounts (the user comes after the timestamp).
+ */
+@Getter
+public final class AccountOutput {
+
+    private final String command;
+    private final int timestamp;
+    private final String user;
+    private final String message;
+
+    public AccountOutput(final String command, final int timestamp, final String user,
+        final String message) {
+        this.command = command;
+        this.timestamp = timestamp;
+        this.user = user;
+        this.message = message;
+    }
+}
@@ -0,0 +1,20 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * An album as shown by showAlbums.
+ */
+@Getter
+public final class AlbumDetails {
+
+    private final String name;
+    private final List<String> songs;
+
+    public AlbumDetails(final String name, final List<String> songs) {
+        this.name = name;
+        this.songs = songs;
+    }
+}
@@ -0,0 +1,23 @@
+package output;
+
+import lombok.Getter;
+
+/**
+ * The revenue of an artist, as printed at the end of the program.
+ */
+@Getter
+public final class ArtistRevenue {
+
+    private final double songRevenue;
+    private final double merchRevenue;
+    private final int ranking;
+    private final String mostProfitableSong;
+
+    public ArtistRevenue(final double songRevenue, final double merchRevenue, final int ranking,
+        final String mostProfitableSong) {
+        this.songRevenue = songRevenue;
+        this.merchRevenue = merchRevenue;
+        this.ranking = ranking;
+        this.mostProfitableSong = mostProfitableSong;
+    }
+}
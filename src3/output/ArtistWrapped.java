@@ -0,0 +1,26 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The wrapped statistics of an artist.
+ */
+@Getter
+public final class ArtistWrapped {
+
+    private final Map<String, Integer> topAlbums;
+    private final Map<String, Integer> topSongs;
+    private final List<String> topFans;
+    private final int listeners;
+
+    public ArtistWrapped(final Map<String, Integer> topAlbums, final Map<String, Integer> topSongs,
+        final List<String> topFans, final int listeners) {
+        this.topAlbums = topAlbums;
+        this.topSongs = topSongs;
+        this.topFans = topFans;
+        this.listeners = listeners;
+    }
+}
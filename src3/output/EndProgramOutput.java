@@ -0,0 +1,20 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The final report of the artists' revenues, by artist name in ranking order.
+ */
+@Getter
+public final class EndProgramOutput {
+
+    private final String command;
+    private final Map<String, ArtistRevenue> result;
+
+    public EndProgramOutput(final Map<String, ArtistRevenue> result) {
+        this.command = "endProgram";
+        this.result = result;
+    }
+}
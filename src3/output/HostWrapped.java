@@ -0,0 +1,20 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The wrapped statistics of a host.
+ */
+@Getter
+public final class HostWrapped {
+
+    private final Map<String, Integer> topEpisodes;
+    private final int listeners;
+
+    public HostWrapped(final Map<String, Integer> topEpisodes, final int listeners) {
+        this.topEpisodes = topEpisodes;
+        this.listeners = listeners;
+    }
+}
@@ -0,0 +1,24 @@
+package output;
+
+import lombok.Getter;
+
+/**
+ * The usual answer to a user's command: the command, who gave it, when and the outcome message.
+ * The user is left out of the JSON when it's null.
+ */
+@Getter
+public final class MessageOutput {
+
+    private final String command;
+    private final String user;
+    private final int timestamp;
+    private final String message;
+
+    public MessageOutput(final String command, final String user, final int timestamp,
+        final String message) {
+        this.command = command;
+        this.user = user;
+        this.timestamp = timestamp;
+        this.message = message;
+    }
+}
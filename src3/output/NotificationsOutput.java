@@ -0,0 +1,26 @@
+package output;
+
+import lombok.Getter;
+import user.Notification;
+
+import java.util.List;
+
+/**
+ * The answer to the getNotifications command.
+ */
+@Getter
+public final class NotificationsOutput {
+
+    private final String command;
+    private final String user;
+    private final int timestamp;
+    private final List<Notification> notifications;
+
+    public NotificationsOutput(final String user, final int timestamp,
+        final List<Notification> notifications) {
+        this.command = "getNotifications";
+        this.user = user;
+        this.timestamp = timestamp;
+        this.notifications = notifications;
+    }
+}
@@ -0,0 +1,60 @@
+package output;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Destination of the command outputs. Every output is written to the result file (as an element
+ * of one pretty-printed JSON array) and flushed as soon as it is added, so nothing is retained in
+ * memory after its command finished.
+ */
+public final class OutputSink implements Closeable {
+
+    /**
+     * Shared by all the sinks: it's immutable and it caches the serializers of the output types
+     * after their first use, so they are only built once per program.
+     */
+    private static final ObjectWriter WRITER = new ObjectMapper()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .writer();
+
+    private final JsonGenerator generator;
+
+    public OutputSink(final File file) throws IOException {
+        generator = WRITER.createGenerator(file, JsonEncoding.UTF8);
+        generator.setPrettyPrinter(new DefaultPrettyPrinter());
+        generator.writeStartArray();
+    }
+
+    /**
+     * Write the output of a command and flush it to the result file.
+     *
+     * @param output is the output of the command (one of the output types or a JSON node)
+     */
+    public void add(final Object output) {
+        try {
+            WRITER.writeValue(generator, output);
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the JSON array and the result file.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+    }
+}
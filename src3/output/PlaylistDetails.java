@@ -0,0 +1,25 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A playlist as shown by showPlaylists.
+ */
+@Getter
+public final class PlaylistDetails {
+
+    private final String name;
+    private final List<String> songs;
+    private final String visibility;
+    private final int followers;
+
+    public PlaylistDetails(final String name, final List<String> songs, final String visibility,
+        final int followers) {
+        this.name = name;
+        this.songs = songs;
+        this.visibility = visibility;
+        this.followers = followers;
+    }
+}
@@ -0,0 +1,20 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A podcast as shown by showPodcasts.
+ */
+@Getter
+public final class PodcastDetails {
+
+    private final String name;
+    private final List<String> episodes;
+
+    public PodcastDetails(final String name, final List<String> episodes) {
+        this.name = name;
+        this.episodes = episodes;
+    }
+}
@@ -0,0 +1,24 @@
+package output;
+
+import lombok.Getter;
+
+/**
+ * The answer to a command that returns data (pages, tops, wrapped, ...) instead of a message.
+ * The user is left out of the JSON when it's null (the global commands).
+ */
+@Getter
+public final class ResultOutput {
+
+    private final String command;
+    private final String user;
+    private final int timestamp;
+    private final Object result;
+
+    public ResultOutput(final String command, final String user, final int timestamp,
+        final Object result) {
+        this.command = command;
+        this.user = user;
+        this.timestamp = timestamp;
+        this.result = result;
+    }
+}
@@ -0,0 +1,27 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The answer to a search: the message and the names of the results.
+ */
+@Getter
+public final class SearchOutput {
+
+    private final String command;
+    private final String user;
+    private final int timestamp;
+    private final String message;
+    private final List<String> results;
+
+    public SearchOutput(final String user, final int timestamp, final String message,
+        final List<String> results) {
+        this.command = "search";
+        this.user = user;
+        this.timestamp = timestamp;
+        this.message = message;
+        this.results = results;
+    }
+}
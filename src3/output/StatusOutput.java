@@ -0,0 +1,22 @@
+package output;
+
+import lombok.Getter;
+
+/**
+ * The answer to the status command.
+ */
+@Getter
+public final class StatusOutput {
+
+    private final String command;
+    private final String user;
+    private final int timestamp;
+    private final SongStats stats;
+
+    public StatusOutput(final String user, final int timestamp, final SongStats stats) {
+        this.command = "status";
+        this.user = user;
+        this.timestamp = timestamp;
+        this.stats = stats;
+    }
+}
@@ -0,0 +1,28 @@
+package output;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * The wrapped statistics of a normal user, every map goes from name to number of listens.
+ */
+@Getter
+public final class UserWrapped {
+
+    private final Map<String, Integer> topArtists;
+    private final Map<String, Integer> topGenres;
+    private final Map<String, Integer> topSongs;
+    private final Map<String, Integer> topAlbums;
+    private final Map<String, Integer> topEpisodes;
+
+    public UserWrapped(final Map<String, Integer> topArtists,
+        final Map<String, Integer> topGenres, final Map<String, Integer> topSongs,
+        final Map<String, Integer> topAlbums, final Map<String, Integer> topEpisodes) {
+        this.topArtists = topArtists;
+        this.topGenres = topGenres;
+        this.topSongs = topSongs;
+        this.topAlbums = topAlbums;
+        this.topEpisodes = topEpisodes;
+    }
+}
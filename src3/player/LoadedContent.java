@@ -0,0 +1,224 @@
+package player;
+
+import audio.files.Song;
+import audio.item.AudioItem;
+import audio.lists.Playlist;
+import audio.lists.Podcast;
+import enums.AudioEnum;
+import user.User;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reverse index of what the players of the users of a library have loaded, and of whose pages
+ * the users are on. Every item (song, playlist, album or podcast) has the number of players it is
+ * loaded in, and so does every owner (the artist of a song, the owner of a list or podcast) for
+ * every type of item, so checking whether something can be deleted doesn't go through the users.
+ * The songs of the loaded playlists, and their artists, have the number of loaded playlists
+ * holding them, kept up to date as the playlists are edited.
+ * The index is brought up to date with a user whenever their player or page may have changed.
+ */
+public final class LoadedContent {
+
+    // what was recorded for every user
+    private final Map<User, AudioItem> queues = new IdentityHashMap<>();
+    private final Map<User, String> pages = new IdentityHashMap<>();
+    // number of players / users for every item, owner and page
+    private final EnumMap<AudioEnum, Map<AudioItem, Integer>> players =
+        new EnumMap<>(AudioEnum.class);
+    private final EnumMap<AudioEnum, Map<String, Integer>> owners =
+        new EnumMap<>(AudioEnum.class);
+    private final Map<String, Integer> viewers = new HashMap<>();
+    // number of players for every podcast name
+    private final Map<String, Integer> podcastNames = new HashMap<>();
+    // number of loaded playlists (not albums) holding every song, and the songs of every artist
+    private final Map<Song, Integer> playlistSongs = new IdentityHashMap<>();
+    private final Map<String, Integer> playlistArtists = new HashMap<>();
+
+    /**
+     * Start keeping track of a user.
+     */
+    public void add(final User user) {
+        queues.put(user, null);
+        pages.put(user, null);
+        sync(user);
+    }
+
+    /**
+     * Record what a user's player has loaded and which page the user is on. Users that were not
+     * added are ignored.
+     */
+    public void sync(final User user) {
+        if (!queues.containsKey(user)) {
+            return;
+        }
+        AudioItem queue = user.getPlayer().getQueue();
+        AudioItem old = queues.put(user, queue);
+        if (old != queue) {
+            if (old != null) {
+                unload(old);
+            }
+            if (queue != null) {
+                load(queue);
+            }
+        }
+        String page = user.getPageOwner();
+        String oldPage = pages.put(user, page);
+        if (oldPage == null || !oldPage.equals(page)) {
+            if (oldPage != null) {
+                count(viewers, oldPage, -1);
+            }
+            if (page != null) {
+                count(viewers, page, 1);
+            }
+        }
+    }
+
+    /**
+     * Forget a (deleted) user.
+     */
+    public void remove(final User user) {
+        AudioItem queue = queues.remove(user);
+        if (queue != null) {
+            unload(queue);
+        }
+        String page = pages.remove(user);
+        if (page != null) {
+            count(viewers, page, -1);
+        }
+    }
+
+    private void load(final AudioItem item) {
+        int count = count(players.computeIfAbsent(item.getType(),
+            type -> new IdentityHashMap<>()), item, 1);
+        String owner = ownerOf(item);
+        if (owner != null) {
+            count(owners.computeIfAbsent(item.getType(), type -> new HashMap<>()), owner, 1);
+        }
+        if (item.getType() == AudioEnum.PODCAST) {
+            count(podcastNames, ((Podcast) item).getName(), 1);
+        } else if (item.getType() == AudioEnum.PLAYLIST && count == 1) {
+            countSongs((Playlist) item, 1);
+        }
+    }
+
+    private void unload(final AudioItem item) {
+        int count = count(players.get(item.getType()), item, -1);
+        String owner = ownerOf(item);
+        if (owner != null) {
+            count(owners.get(item.getType()), owner, -1);
+        }
+        if (item.getType() == AudioEnum.PODCAST) {
+            count(podcastNames, ((Podcast) item).getName(), -1);
+        } else if (item.getType() == AudioEnum.PLAYLIST && count == 0) {
+            countSongs((Playlist) item, -1);
+        }
+    }
+
+    private void countSongs(final Playlist playlist, final int delta) {
+        for (Song song : playlist.getSongs()) {
+            countSong(song, delta);
+        }
+    }
+
+    private void countSong(final Song song, final int delta) {
+        count(playlistSongs, song, delta);
+        count(playlistArtists, song.getArtist(), delta);
+    }
+
+    /**
+     * Record a song added to a playlist (by the library, which edits the playlists).
+     */
+    public void songAdded(final Playlist playlist, final Song song) {
+        if (playlist.getType() == AudioEnum.PLAYLIST && isLoaded(playlist)) {
+            countSong(song, 1);
+        }
+    }
+
+    /**
+     * Record a song removed from a playlist (by the library, which edits the playlists).
+     */
+    public void songRemoved(final Playlist playlist, final Song song) {
+        if (playlist.getType() == AudioEnum.PLAYLIST && isLoaded(playlist)) {
+            countSong(song, -1);
+        }
+    }
+
+    /**
+     * @return the new count of the key
+     */
+    private static <K> int count(final Map<K, Integer> counts, final K key, final int delta) {
+        int count = counts.getOrDefault(key, 0) + delta;
+        if (count == 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * @return the owner of the item, or null for the recommendation playlists, which have none
+     */
+    private static String ownerOf(final AudioItem item) {
+        return switch (item.getType()) {
+            case SONG -> ((Song) item).getArtist();
+            case PLAYLIST, ALBUM -> {
+                User owner = ((Playlist) item).getOwner();
+                yield owner == null ? null : owner.getUsername();
+            }
+            case PODCAST -> ((Podcast) item).getOwner();
+            default -> null;
+        };
+    }
+
+    /**
+     * @return whether the item (the exact object) is loaded in any player
+     */
+    public boolean isLoaded(final AudioItem item) {
+        Map<AudioItem, Integer> counts = players.get(item.getType());
+        return counts != null && counts.containsKey(item);
+    }
+
+    /**
+     * @return whether any player has loaded an item of the given type and owner (the artist, for
+     * songs)
+     */
+    public boolean isLoaded(final AudioEnum type, final String owner) {
+        Map<String, Integer> counts = owners.get(type);
+        return counts != null && counts.containsKey(owner);
+    }
+
+    /**
+     * @return whether a podcast with the given name is loaded in any player
+     */
+    public boolean isPodcastLoaded(final String name) {
+        return podcastNames.containsKey(name);
+    }
+
+    /**
+     * @return whether the song (the exact object) is in a loaded playlist (of type PLAYLIST, not
+     * an album)
+     */
+    public boolean isInLoadedPlaylist(final Song song) {
+        return playlistSongs.containsKey(song);
+    }
+
+    /**
+     * @return whether a song of the given artist is in a loaded playlist (of type PLAYLIST, not
+     * an album)
+     */
+    public boolean isArtistInLoadedPlaylist(final String artist) {
+        return playlistArtists.containsKey(artist);
+    }
+
+    /**
+     * @return whether any user is on the page of the given owner
+     */
+    public boolean isPageOpen(final String owner) {
+        return viewers.containsKey(owner);
+    }
+}
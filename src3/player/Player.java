@@ -6,12 +6,14 @@ import audio.lists.Library;
 import audio.lists.Playlist;
 import audio.lists.Podcast;
 import audio.lists.PodcastProgress;
+import audio.lists.ShuffledTracks;
+import audio.lists.Timeline;
+import audio.lists.TrackList;
 import audio.item.AudioItem;
 import enums.AudioEnum;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import output.OutputSink;
 import commands.Command;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import specialusers.Artist;
@@ -22,11 +24,14 @@ import enums.Status;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Random;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import audio.files.AudioFile;
+import output.MessageOutput;
 import output.SongStats;
+import output.StatusOutput;
 import audio.files.Song;
 
 
@@ -36,6 +41,10 @@ public final class Player {
 
     private static final int FW_BW_TIME = 90;
     private static final double PREMIUM_MONEY = 1000000;
+    /**
+     * Returned by {@link #nextEvent} when nothing happens until the player is used again.
+     */
+    public static final long NO_EVENT = Long.MAX_VALUE;
     private boolean isPlaying = false;
     private boolean shuffle = false;
     private int lastCheck = 0;
@@ -50,12 +59,28 @@ public final class Player {
     private ArrayList<String> playlistRepeatMessage = new ArrayList<>(
         Arrays.asList("No Repeat", "Repeat All", "Repeat Current Song"));
     private ArrayList<AudioFile> shuffledSongs;
-    private ArrayList<SongHistory> songHistory = new ArrayList<>();
-    private ArrayList<SongHistory> premiumSongHistory = new ArrayList<>();
+    // listens since the last payout, by the ids of the song and its artist (see addListen)
+    private LinkedHashMap<Long, SongHistory> songHistory = new LinkedHashMap<>();
+    private LinkedHashMap<Long, SongHistory> premiumSongHistory = new LinkedHashMap<>();
     private Song ad;
     private boolean adBreak = false;
     private double adPrice = 0;
     private int lastIndex = 0;
+    // position of the current file in the list it was taken from, checked before being used
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private List<? extends AudioFile> cursorTracks;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int cursor = -1;
+    // order of the loaded list while shuffling
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Timeline<Song> shuffledTracks;
+    // the permutation used while shuffling, kept to be reused by the next shuffle
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ShuffledTracks<Song> shuffleOrder = new ShuffledTracks<>();
 
     public Player(final Library myLibrary) {
         this.ad = myLibrary.getSongs().get(0);
@@ -65,17 +90,12 @@ public final class Player {
      * Load the selected audio item to the user's player. NOTE: There must be something selected in
      * the searchbar, be it a playlist, podcast or song.
      */
-    public void load(final Command command, final User user, final ArrayNode outputs,
+    public void load(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode loadOutput = mapper.createObjectNode();
 
         if (user.getSearchBar().getSelected() == null) {
-            loadOutput.put("command", "load");
-            loadOutput.put("user", command.getUsername());
-            loadOutput.put("timestamp", command.getTimestamp());
-            loadOutput.put("message", "Please select a source before attempting to load.");
-            outputs.add(loadOutput);
+            outputs.add(new MessageOutput("load", command.getUsername(), command.getTimestamp(),
+                "Please select a source before attempting to load."));
             return;
         }
         queue = user.getSearchBar().getSelected();
@@ -88,22 +108,18 @@ public final class Player {
         adPrice = 0;
         switch (queue.getType()) {
             case PLAYLIST, ALBUM -> {
-                currentFile = ((Playlist) queue).getSongs().get(0);
-                ((Playlist) queue).setShuffledPlaylist(((Playlist) queue).getSongs());
+                moveTo(((Playlist) queue).getSongs(), 0);
+                shuffledTracks = ((Playlist) queue).getSongs();
                 addSongStat(user, library);
             }
             case PODCAST -> {
-                for (PodcastProgress progress : user.getPodcastProgress()) {
-                    if (progress.getPodcast().equals(queue)) {
-                        currentFile = progress.getEpisode();
-                        timeListened = progress.getTimeListened();
-                        user.addEpisodeListen(currentFile.getName());
-                        Host host = (Host) library.findUser(progress.getPodcast().getOwner());
-                        host.addEpisodeListen(currentFile.getName());
-                        host.addListener(user.getUsername());
-                        break;
-                    }
-                }
+                PodcastProgress progress = user.progressOf((Podcast) queue);
+                currentFile = progress.getEpisode();
+                timeListened = progress.getTimeListened();
+                user.addEpisodeListen(currentFile.getId(), currentFile.getName());
+                Host host = (Host) library.findUser(progress.getPodcast().getOwner());
+                host.addEpisodeListen(currentFile.getId(), currentFile.getName());
+                host.addListener(user);
             }
             case SONG -> {
                 currentFile = (Song) queue;
@@ -113,27 +129,47 @@ public final class Player {
                 return;
             }
         }
-        loadOutput.put("command", "load");
-        loadOutput.put("user", command.getUsername());
-        loadOutput.put("timestamp", command.getTimestamp());
-        loadOutput.put("message", "Playback loaded successfully.");
-        outputs.add(loadOutput);
+        outputs.add(new MessageOutput("load", command.getUsername(), command.getTimestamp(),
+            "Playback loaded successfully."));
+    }
+
+    /**
+     * Make a track of a list the current file, remembering its position.
+     */
+    private void moveTo(final List<? extends AudioFile> tracks, final int index) {
+        currentFile = tracks.get(index);
+        cursorTracks = tracks;
+        cursor = index;
+    }
+
+    /**
+     * @return the position of the current file in the given list, or -1 if it isn't there. The
+     * remembered position is used while it still holds the current file; otherwise (the file was
+     * set without a position or the list changed under it) the list is searched once.
+     */
+    private int indexOfCurrent(final List<? extends AudioFile> tracks) {
+        if (tracks != cursorTracks || cursor < 0 || cursor >= tracks.size()
+            || tracks.get(cursor) != currentFile) {
+            cursorTracks = tracks;
+            cursor = tracks.indexOf(currentFile);
+        }
+        return cursor;
     }
 
     private void addSongStat(final User user, final Library library) {
         Song currentSong = (Song) currentFile;
-        user.addArtistListen(currentSong.getArtist());
-        user.addGenreListen(currentSong.getGenre());
-        user.addAlbumListen(currentSong.getAlbum());
-        user.addSongListen(currentSong.getName());
+        user.addArtistListen(currentSong.getArtistId(), currentSong.getArtist());
+        user.addGenreListen(currentSong.getGenreId(), currentSong.getGenre());
+        user.addAlbumListen(currentSong.getAlbumId(), currentSong.getAlbum());
+        user.addSongListen(currentSong.getId(), currentSong.getName());
         Artist artist = library.findArtist(currentSong.getArtist());
-        artist.addSongListen(currentSong.getName());
-        artist.addAlbumListen(currentSong.getAlbum());
-        artist.addListener(user.getUsername());
+        artist.addSongListen(currentSong.getId(), currentSong.getName());
+        artist.addAlbumListen(currentSong.getAlbumId(), currentSong.getAlbum());
+        artist.addListener(user);
         if (!user.isPremium()) {
-            addSongHistory(currentSong.getName(), currentSong.getArtist());
+            addSongHistory(currentSong);
         } else {
-            addPremiumSongHistory(currentSong.getName(), currentSong.getArtist());
+            addPremiumSongHistory(currentSong);
         }
     }
 
@@ -141,44 +177,36 @@ public final class Player {
     /**
      * Print what song/episode the user is currently listening to.
      */
-    public void status(final Command command, final User user, final ArrayNode outputs,
+    public void status(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode statusOutput = mapper.createObjectNode();
-        statusOutput.put("command", "status");
-        statusOutput.put("user", command.getUsername());
-        statusOutput.put("timestamp", command.getTimestamp());
         update(command.getTimestamp(), user, library);
+        SongStats songStats;
         if (currentFile == null) {
-            SongStats songStats = new SongStats("", 0, "No Repeat", false, true);
-            statusOutput.putPOJO("stats", songStats);
+            songStats = new SongStats("", 0, "No Repeat", false, true);
         } else {
             boolean isPaused = !isPlaying;
             switch (queue.getType()) {
                 case SONG -> {
-                    SongStats songStats = new SongStats(currentFile.getName(),
+                    songStats = new SongStats(currentFile.getName(),
                         currentFile.getDuration() - timeListened, songRepeatMessage.get(repeatMode),
                         shuffle, isPaused);
-                    statusOutput.putPOJO("stats", songStats);
                 }
                 case PODCAST -> {
-                    SongStats songStats = new SongStats(currentFile.getName(),
+                    songStats = new SongStats(currentFile.getName(),
                         currentFile.getDuration() - timeListened,
                         podcastRepeatMessage.get(repeatMode), shuffle, isPaused);
-                    statusOutput.putPOJO("stats", songStats);
                 }
                 case PLAYLIST, ALBUM -> {
-                    SongStats songStats = new SongStats(currentFile.getName(),
+                    songStats = new SongStats(currentFile.getName(),
                         currentFile.getDuration() - timeListened,
                         playlistRepeatMessage.get(repeatMode), shuffle, isPaused);
-                    statusOutput.putPOJO("stats", songStats);
                 }
                 default -> {
                     return;
                 }
             }
         }
-        outputs.add(statusOutput);
+        outputs.add(new StatusOutput(command.getUsername(), command.getTimestamp(), songStats));
     }
 
     /**
@@ -242,47 +270,43 @@ public final class Player {
                 }
             }
             case PODCAST -> {
-                int playedTime = timestamp - lastCheck;
-                int idx = ((Podcast) queue).getEpisodes().indexOf((Episode) currentFile);
-                for (Episode episode : ((Podcast) queue).getEpisodes()
-                    .subList(idx, ((Podcast) queue).getEpisodes().size())) {
-                    if (timeListened + playedTime >= episode.getDuration()) {
-
-                        if (idx < ((Podcast) queue).getEpisodes().size() - 1) {
-                            currentFile = ((Podcast) queue).getEpisodes().get(idx + 1);
-                            user.addEpisodeListen(currentFile.getName());
-                            Host host = (Host) library.findUser(((Podcast) queue).getOwner());
-                            host.addEpisodeListen(currentFile.getName());
-                        }
-                        idx++;
-                        playedTime -= (episode.getDuration() - timeListened);
-                        timeListened = 0;
-                    } else {
-                        timeListened += playedTime;
-                        currentFile = episode;
-                        playedTime = 0;
-                        break;
-                    }
+                TrackList<Episode> episodes = ((Podcast) queue).getEpisodes();
+                int idx = indexOfCurrent(episodes);
+                // position reached in the podcast, then the episode playing there
+                long position = episodes.startOf(idx) + timeListened + (timestamp - lastCheck);
+                int end = episodes.indexAt(position);
+                // every episode started on the way counts as a listen
+                for (int i = idx + 1; i <= end && i < episodes.size(); i++) {
+                    moveTo(episodes, i);
+                    user.addEpisodeListen(currentFile.getId(), currentFile.getName());
+                    Host host = (Host) library.findUser(((Podcast) queue).getOwner());
+                    host.addEpisodeListen(currentFile.getId(), currentFile.getName());
+                }
+                long playedTime = 0;
+                if (end < episodes.size()) {
+                    timeListened = (int) (position - episodes.startOf(end));
+                } else {
+                    playedTime = position - episodes.getTotalDuration();
+                    timeListened = 0;
                 }
                 if (playedTime > 0) {
                     isPlaying = false;
                     currentFile = null;
                     queue = null;
                 }
-                for (PodcastProgress progress : user.getPodcastProgress()) {
-                    if (progress.getPodcast().equals(queue)) {
-                        progress.setProgress((Podcast) queue, (Episode) currentFile, timeListened);
-                    }
+                if (queue != null) {
+                    user.progressOf((Podcast) queue)
+                        .setProgress((Podcast) queue, (Episode) currentFile, timeListened);
                 }
             }
             case PLAYLIST, ALBUM -> {
                 if (!shuffle) {
                     int playedTime = timestamp - lastCheck;
-                    int idx = ((Playlist) queue).getSongs().indexOf((Song) currentFile);
+                    int idx = indexOfCurrent(((Playlist) queue).getSongs());
                     if (idx == -1) {
                         // i am in the ad
                         if (playedTime + timeListened >= ad.getDuration()) {
-                            currentFile = ((Playlist) queue).getSongs().get(lastIndex + 1);
+                            moveTo(((Playlist) queue).getSongs(), lastIndex + 1);
                             idx = lastIndex + 1;
                         }
                     }
@@ -310,12 +334,12 @@ public final class Player {
                                 } else {
                                     // return to playlist
                                     timeListened = 0;
-                                    currentFile = ((Playlist) queue).getSongs().get(lastIndex);
+                                    moveTo(((Playlist) queue).getSongs(), lastIndex);
                                     lastCheck = timestamp;
                                 }
                             }
                             if (idx < ((Playlist) queue).getSongs().size() - 1) {
-                                currentFile = ((Playlist) queue).getSongs().get(idx + 1);
+                                moveTo(((Playlist) queue).getSongs(), idx + 1);
                                 addSongStat(user, library);
                             }
                             idx++;
@@ -323,32 +347,14 @@ public final class Player {
                             timeListened = 0;
                         } else {
                             timeListened += playedTime;
-                            currentFile = song;
+                            moveTo(((Playlist) queue).getSongs(), idx);
                             playedTime = 0;
                             break;
                         }
                     }
                     if (playedTime > 0) {
                         if (repeatMode == 1) {
-                            while (playedTime > 0) {
-                                currentFile = ((Playlist) queue).getSongs().get(0);
-                                timeListened = 0;
-                                idx = 0;
-                                for (Song song : ((Playlist) queue).getSongs()) {
-                                    if (playedTime > song.getDuration()) {
-                                        if (idx < ((Playlist) queue).getSongs().size() - 1) {
-                                            currentFile = ((Playlist) queue).getSongs()
-                                                .get(idx + 1);
-                                        }
-                                        playedTime -= song.getDuration();
-                                    } else {
-                                        timeListened = playedTime;
-                                        currentFile = song;
-                                        playedTime = 0;
-                                        break;
-                                    }
-                                }
-                            }
+                            repeatAll(((Playlist) queue).getSongs(), playedTime);
                         } else {
                             queue = null;
                             isPlaying = false;
@@ -358,61 +364,45 @@ public final class Player {
 
                     }
                 } else {
-                    int playedTime = timestamp - lastCheck;
-                    int idx = ((Playlist) queue).getShuffledPlaylist().indexOf((Song) currentFile);
+                    Timeline<Song> shuffled = shuffledTracks;
+                    int idx = indexOfCurrent(shuffled);
                     if (idx == -1) {
                         return;
                     }
-                    for (Song song : ((Playlist) queue).getShuffledPlaylist()
-                        .subList(idx, ((Playlist) queue).getShuffledPlaylist().size())) {
-                        if (timeListened + playedTime >= song.getDuration()) {
-                            if (repeatMode == 2) {
-                                timeListened += playedTime;
-                                timeListened %= song.getDuration();
-                                lastCheck = timestamp;
-                                return;
-                            }
-                            if (idx < ((Playlist) queue).getSongs().size() - 1) {
-                                currentFile = ((Playlist) queue).getSongs().get(idx + 1);
-                            }
-                            idx++;
-                            playedTime -= (song.getDuration() - timeListened);
-                            timeListened = 0;
+                    long played = timeListened + (timestamp - lastCheck);
+                    if (played < shuffled.get(idx).getDuration()) {
+                        timeListened = (int) played;
+                        moveTo(shuffled, idx);
+                    } else if (repeatMode == 2) {
+                        timeListened = (int) (played % shuffled.get(idx).getDuration());
+                        lastCheck = timestamp;
+                        return;
+                    } else {
+                        // position reached in the shuffled order, then the song playing there
+                        long position = shuffled.startOf(idx) + played;
+                        int end = shuffled.indexAt(position);
+                        if (end < shuffled.size()) {
+                            timeListened = (int) (position - shuffled.startOf(end));
+                            moveTo(shuffled, end);
                         } else {
-                            timeListened += playedTime;
-                            currentFile = song;
-                            playedTime = 0;
-                            break;
-                        }
-                    }
-                    if (playedTime > 0) {
-                        if (repeatMode == 1) {
-                            while (playedTime > 0) {
-                                currentFile = ((Playlist) queue).getShuffledPlaylist().get(0);
-                                timeListened = 0;
-                                idx = 0;
-                                for (Song song : ((Playlist) queue).getShuffledPlaylist()) {
-                                    if (playedTime > song.getDuration()) {
-                                        if (idx
-                                            < ((Playlist) queue).getShuffledPlaylist().size() - 1) {
-                                            currentFile = ((Playlist) queue).getShuffledPlaylist()
-                                                .get(idx + 1);
-                                        }
-                                        playedTime -= song.getDuration();
-                                    } else {
-                                        timeListened = playedTime;
-                                        currentFile = song;
-                                        playedTime = 0;
-                                        break;
-                                    }
+                            timeListened = 0;
+                            // when passing a song the next one is taken from the original order
+                            int last = Math.min(shuffled.size(),
+                                ((Playlist) queue).getSongs().size() - 1);
+                            if (last > idx) {
+                                moveTo(((Playlist) queue).getSongs(), last);
+                            }
+                            long playedTime = position - shuffled.getTotalDuration();
+                            if (playedTime > 0) {
+                                if (repeatMode == 1) {
+                                    repeatAll(shuffled, playedTime);
+                                } else {
+                                    queue = null;
+                                    isPlaying = false;
+                                    currentFile = null;
                                 }
                             }
-                        } else {
-                            queue = null;
-                            isPlaying = false;
-                            currentFile = null;
                         }
-
                     }
                 }
             }
@@ -424,6 +414,42 @@ public final class Player {
         lastCheck = timestamp;
     }
 
+    /**
+     * @return the earliest timestamp at which an update could move the player past a boundary
+     * (the end of the current track, ad or episode), or NO_EVENT if the player is stopped, paused
+     * or its user is offline. Updates before it only add to the time listened, except for podcasts:
+     * every update saves the progress of the podcast, which is kept after it ends, so a playing
+     * podcast is always due.
+     */
+    public long nextEvent(final User user) {
+        if (user.getStatus() == Status.OFFLINE || !isPlaying || queue == null) {
+            return NO_EVENT;
+        }
+        if (currentFile == null || queue.getType() == AudioEnum.PODCAST) {
+            return lastCheck;
+        }
+        long left = currentFile.getDuration();
+        if (queue.getType() == AudioEnum.SONG) {
+            // during an ad the end of the song is still checked
+            left = Math.min(left, ((Song) queue).getDuration());
+        }
+        return lastCheck + Math.max(0, left - timeListened);
+    }
+
+    /**
+     * Keep playing a list on repeat: skip the whole laps and find the song playing after the
+     * remaining time (a song that ends exactly then is still the current one).
+     *
+     * @param playedTime is the time played after the end of the list (positive)
+     */
+    private void repeatAll(final Timeline<Song> songs, final long playedTime) {
+        long total = songs.getTotalDuration();
+        long lapTime = playedTime - total * ((playedTime - 1) / total);
+        int idx = songs.indexAt(lapTime - 1);
+        moveTo(songs, idx);
+        timeListened = (int) (lapTime - songs.startOf(idx));
+    }
+
     /**
      * Pay artists for user's listens.
      */
@@ -436,27 +462,29 @@ public final class Player {
         }
         double listens = 0, songQuant;
         if (!user.isPremium()) {
-            for (SongHistory song : songHistory) {
+            for (SongHistory song : songHistory.values()) {
                 listens += song.getListens();
             }
         } else {
-            for (SongHistory song : premiumSongHistory) {
+            for (SongHistory song : premiumSongHistory.values()) {
                 listens += song.getListens();
             }
         }
         songQuant = money / listens;
         if (!user.isPremium()) {
-            for (SongHistory song : songHistory) {
+            for (SongHistory song : songHistory.values()) {
                 Artist artist = library.findArtist(song.getArtist());
-                artist.addSongProfits(song.getName(), songQuant * song.getListens());
+                artist.addSongProfits(song.getSongId(), song.getName(),
+                    songQuant * song.getListens());
                 artist.setSongRevenue(artist.getSongRevenue() + songQuant * song.getListens());
             }
             // empty history
             songHistory.clear();
         } else {
-            for (SongHistory song : premiumSongHistory) {
+            for (SongHistory song : premiumSongHistory.values()) {
                 Artist artist = library.findArtist(song.getArtist());
-                artist.addSongProfits(song.getName(), songQuant * song.getListens());
+                artist.addSongProfits(song.getSongId(), song.getName(),
+                    songQuant * song.getListens());
                 artist.setSongRevenue(artist.getSongRevenue() + songQuant * song.getListens());
             }
             // empty history
@@ -467,180 +495,163 @@ public final class Player {
     /**
      * Resume or pause the current episode/song the user is listening to.
      */
-    public void playPause(final Command command, final User user, final ArrayNode outputs,
+    public void playPause(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode playPauseOutput = mapper.createObjectNode();
-        playPauseOutput.put("command", "playPause");
-        playPauseOutput.put("user", command.getUsername());
-        playPauseOutput.put("timestamp", command.getTimestamp());
+        String message;
         update(command.getTimestamp(), user, library);
         if (queue == null) {
-            playPauseOutput.put("message",
-                "Please load a source before attempting to pause or resume playback.");
-            outputs.add(playPauseOutput);
+            outputs.add(new MessageOutput("playPause", command.getUsername(),
+                command.getTimestamp(),
+                "Please load a source before attempting to pause or resume playback."));
             return;
         }
         if (!isPlaying) {
             isPlaying = true;
             lastCheck = command.getTimestamp();
-            playPauseOutput.put("message", "Playback resumed successfully.");
+            message = "Playback resumed successfully.";
         } else {
             isPlaying = false;
-            playPauseOutput.put("message", "Playback paused successfully.");
+            message = "Playback paused successfully.";
         }
-        outputs.add(playPauseOutput);
+        outputs.add(new MessageOutput("playPause", command.getUsername(), command.getTimestamp(),
+            message));
     }
 
     /**
      * Add (or remove) the loaded song to one of the user's playlists.
      */
     public void addRemoveInPlaylist(final Command command, final User user,
-        final ArrayNode outputs, final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addRemoveToPlaylistOutput = mapper.createObjectNode();
-        addRemoveToPlaylistOutput.put("command", "addRemoveInPlaylist");
-        addRemoveToPlaylistOutput.put("user", command.getUsername());
-        addRemoveToPlaylistOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs, final Library library) {
+        String message;
         update(command.getTimestamp(), user, library);
         if (currentFile == null) {
-            addRemoveToPlaylistOutput.put("message",
-                "Please load a source before adding to or removing from the playlist.");
-            outputs.add(addRemoveToPlaylistOutput);
+            outputs.add(new MessageOutput("addRemoveInPlaylist", command.getUsername(),
+                command.getTimestamp(),
+                "Please load a source before adding to or removing from the playlist."));
             return;
         }
         if (currentFile.getType() == AudioEnum.EPISODE) {
-            addRemoveToPlaylistOutput.put("message", "The loaded source is not a song.");
-            outputs.add(addRemoveToPlaylistOutput);
+            outputs.add(new MessageOutput("addRemoveInPlaylist", command.getUsername(),
+                command.getTimestamp(), "The loaded source is not a song."));
             return;
         }
         if (command.getPlaylistId() > user.getPlaylists().size()) {
-            addRemoveToPlaylistOutput.put("message", "The specified playlist does not exist.");
-            outputs.add(addRemoveToPlaylistOutput);
+            outputs.add(new MessageOutput("addRemoveInPlaylist", command.getUsername(),
+                command.getTimestamp(), "The specified playlist does not exist."));
             return;
         }
         Playlist playlist = user.getPlaylists().get(command.getPlaylistId() - 1);
         if (playlist.getSongs().contains(((Song) currentFile))) {
-            playlist.getSongs().remove(currentFile);
-            addRemoveToPlaylistOutput.put("message", "Successfully removed from playlist.");
+            library.removeFromPlaylist(playlist, (Song) currentFile);
+            message = "Successfully removed from playlist.";
         } else {
-            playlist.getSongs().add(((Song) currentFile));
-            addRemoveToPlaylistOutput.put("message", "Successfully added to playlist.");
+            library.addToPlaylist(playlist, (Song) currentFile);
+            message = "Successfully added to playlist.";
         }
-        outputs.add(addRemoveToPlaylistOutput);
+        outputs.add(new MessageOutput("addRemoveInPlaylist", command.getUsername(),
+            command.getTimestamp(), message));
     }
 
     /**
      * Set the repeat mode of the Player.
      */
-    public void repeat(final Command command, final User user, final ArrayNode outputs,
+    public void repeat(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode repeatOutput = mapper.createObjectNode();
-        repeatOutput.put("command", "repeat");
-        repeatOutput.put("user", command.getUsername());
-        repeatOutput.put("timestamp", command.getTimestamp());
+        String message;
         update(command.getTimestamp(), user, library);
         if (queue == null) {
-            repeatOutput.put("message", "Please load a source before setting the repeat status.");
-            outputs.add(repeatOutput);
+            outputs.add(new MessageOutput("repeat", command.getUsername(), command.getTimestamp(),
+                "Please load a source before setting the repeat status."));
             return;
         }
         switch (queue.getType()) {
             case SONG -> {
                 if (repeatMode == 0) {
                     repeatMode = 1;
-                    repeatOutput.put("message", "Repeat mode changed to repeat once.");
+                    message = "Repeat mode changed to repeat once.";
                 } else if (repeatMode == 1) {
                     repeatMode = 2;
-                    repeatOutput.put("message", "Repeat mode changed to repeat infinite.");
+                    message = "Repeat mode changed to repeat infinite.";
                 } else {
                     repeatMode = 0;
-                    repeatOutput.put("message", "Repeat mode changed to no repeat.");
+                    message = "Repeat mode changed to no repeat.";
                 }
             }
             case PODCAST -> {
                 if (repeatMode == 0) {
                     repeatMode = 1;
-                    repeatOutput.put("message", "Repeat mode changed to repeat once.");
+                    message = "Repeat mode changed to repeat once.";
                 } else if (repeatMode == 1) {
                     repeatMode = 2;
-                    repeatOutput.put("message", "Repeat mode changed to repeat infinite.");
+                    message = "Repeat mode changed to repeat infinite.";
                 } else {
                     repeatMode = 0;
-                    repeatOutput.put("message", "Repeat mode changed to no repeat.");
+                    message = "Repeat mode changed to no repeat.";
                 }
             }
             case PLAYLIST, ALBUM -> {
                 if (repeatMode == 0) {
                     repeatMode = 1;
-                    repeatOutput.put("message", "Repeat mode changed to repeat all.");
+                    message = "Repeat mode changed to repeat all.";
                 } else if (repeatMode == 1) {
                     repeatMode = 2;
-                    repeatOutput.put("message", "Repeat mode changed to repeat current song.");
+                    message = "Repeat mode changed to repeat current song.";
                 } else {
                     repeatMode = 0;
-                    repeatOutput.put("message", "Repeat mode changed to no repeat.");
+                    message = "Repeat mode changed to no repeat.";
                 }
             }
             default -> {
                 return;
             }
         }
-        outputs.add(repeatOutput);
+        outputs.add(new MessageOutput("repeat", command.getUsername(), command.getTimestamp(),
+            message));
     }
 
     /**
      * Set the shuffle mode of the current playlist. NOTE: a seed for the Random function must be
      * provided through the Command object.
      */
-    public void shuffle(final Command command, final User user, final ArrayNode outputs,
+    public void shuffle(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode shuffleOutput = mapper.createObjectNode();
-        shuffleOutput.put("command", "shuffle");
-        shuffleOutput.put("user", command.getUsername());
-        shuffleOutput.put("timestamp", command.getTimestamp());
+        String message;
         update(command.getTimestamp(), user, library);
         if (queue == null || currentFile == null) {
-            shuffleOutput.put("message", "Please load a source before using the shuffle function.");
-            outputs.add(shuffleOutput);
+            outputs.add(new MessageOutput("shuffle", command.getUsername(), command.getTimestamp(),
+                "Please load a source before using the shuffle function."));
             return;
         }
         if (queue.getType() != AudioEnum.PLAYLIST && queue.getType() != AudioEnum.ALBUM) {
-            shuffleOutput.put("message", "The loaded source is not a playlist or an album.");
-            outputs.add(shuffleOutput);
+            outputs.add(new MessageOutput("shuffle", command.getUsername(), command.getTimestamp(),
+                "The loaded source is not a playlist or an album."));
             return;
         }
         if (!shuffle) {
             shuffle = true;
-            ((Playlist) queue).setShuffledPlaylist(
-                new ArrayList<Song>(((Playlist) queue).getSongs()));
-            Collections.shuffle(((Playlist) queue).getShuffledPlaylist(),
-                new Random(command.getSeed()));
-            shuffleOutput.put("message", "Shuffle function activated successfully.");
+            // a snapshot of the songs, so editing the playlist doesn't move the shuffled tracks
+            shuffleOrder.shuffle(((Playlist) queue).getSongs().snapshot(), command.getSeed());
+            shuffledTracks = shuffleOrder;
+            message = "Shuffle function activated successfully.";
         } else {
             shuffle = false;
-            ((Playlist) queue).setShuffledPlaylist(null);
-            shuffleOutput.put("message", "Shuffle function deactivated successfully.");
+            shuffledTracks = null;
+            message = "Shuffle function deactivated successfully.";
         }
-        outputs.add(shuffleOutput);
+        outputs.add(new MessageOutput("shuffle", command.getUsername(), command.getTimestamp(),
+            message));
     }
 
     /**
      * Play the next song/episode.
      */
-    public void next(final Command command, final User user, final ArrayNode outputs,
+    public void next(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode nextOutput = mapper.createObjectNode();
-        nextOutput.put("command", "next");
-        nextOutput.put("user", command.getUsername());
-        nextOutput.put("timestamp", command.getTimestamp());
+        String message = null;
         update(command.getTimestamp(), user, library);
         if (queue == null) {
-            nextOutput.put("message", "Please load a source before skipping to the next track.");
-            outputs.add(nextOutput);
+            outputs.add(new MessageOutput("next", command.getUsername(), command.getTimestamp(),
+                "Please load a source before skipping to the next track."));
             return;
         }
         if (queue.getType() == AudioEnum.SONG) {
@@ -648,241 +659,221 @@ public final class Player {
                 queue = null;
                 isPlaying = false;
                 currentFile = null;
-                nextOutput.put("message",
-                    "Please load a source before skipping to the next track.");
+                message = "Please load a source before skipping to the next track.";
             } else if (repeatMode == 1) {
                 currentFile = (Song) queue;
                 timeListened = 0;
-                nextOutput.put("message",
-                    "Skipped to next track successfully. The current track is "
-                        + currentFile.getName() + ".");
+                message = "Skipped to next track successfully. The current track is "
+                    + currentFile.getName() + ".";
             } else {
                 timeListened = 0;
-                nextOutput.put("message",
-                    "Skipped to next track successfully. The current track is "
-                        + currentFile.getName() + ".");
+                message = "Skipped to next track successfully. The current track is "
+                    + currentFile.getName() + ".";
             }
         } else if (queue.getType() == AudioEnum.PODCAST) {
-            int idx = ((Podcast) queue).getEpisodes().indexOf((Episode) currentFile);
+            int idx = indexOfCurrent(((Podcast) queue).getEpisodes());
             if (idx == ((Podcast) queue).getEpisodes().size() - 1) {
-                nextOutput.put("message",
-                    "Please load a source before skipping to the next track.");
+                message = "Please load a source before skipping to the next track.";
                 queue = null;
                 isPlaying = false;
                 currentFile = null;
-                outputs.add(nextOutput);
+                outputs.add(new MessageOutput("next", command.getUsername(), command.getTimestamp(),
+                    message));
                 return;
             }
-            currentFile = ((Podcast) queue).getEpisodes().get(idx + 1);
+            moveTo(((Podcast) queue).getEpisodes(), idx + 1);
             timeListened = 0;
-            nextOutput.put("message",
-                "Skipped to next track successfully. The current track is " + currentFile.getName()
-                    + ".");
+            message = "Skipped to next track successfully. The current track is "
+                + currentFile.getName() + ".";
         } else if (queue.getType() == AudioEnum.PLAYLIST || queue.getType() == AudioEnum.ALBUM) {
             if (repeatMode == 2) {
                 timeListened = 0;
                 lastCheck = command.getTimestamp();
                 // print remaining time and timestamp please
                 isPlaying = true;
-                nextOutput.put("message",
-                    "Skipped to next track successfully. The current track is "
-                        + currentFile.getName() + ".");
+                message = "Skipped to next track successfully. The current track is "
+                    + currentFile.getName() + ".";
             } else {
                 int idx;
                 if (shuffle) {
-                    idx = ((Playlist) queue).getShuffledPlaylist().indexOf((Song) currentFile);
-                    if (idx == ((Playlist) queue).getShuffledPlaylist().size() - 1) {
+                    idx = indexOfCurrent(shuffledTracks);
+                    if (idx == shuffledTracks.size() - 1) {
                         if (repeatMode == 0) {
                             queue = null;
                             isPlaying = false;
                             currentFile = null;
-                            nextOutput.put("message",
-                                "Please load a source before skipping to the next track.");
-                            outputs.add(nextOutput);
+                            outputs.add(new MessageOutput("next", command.getUsername(),
+                                command.getTimestamp(),
+                                "Please load a source before skipping to the next track."));
                             return;
                         } else if (repeatMode == 1) {
-                            currentFile = ((Playlist) queue).getShuffledPlaylist().get(0);
+                            moveTo(shuffledTracks, 0);
                             timeListened = 0;
                             isPlaying = true;
-                            nextOutput.put("message",
+                            outputs.add(new MessageOutput("next", command.getUsername(),
+                                command.getTimestamp(),
                                 "Skipped to next track successfully. The current track is "
-                                    + currentFile.getName() + ".");
-                            outputs.add(nextOutput);
+                                    + currentFile.getName() + "."));
                             return;
                         }
-                        nextOutput.put("message",
-                            "Please load a source before skipping to the next track.");
-                        outputs.add(nextOutput);
+                        outputs.add(new MessageOutput("next", command.getUsername(),
+                            command.getTimestamp(),
+                            "Please load a source before skipping to the next track."));
                         return;
                     }
-                    currentFile = ((Playlist) queue).getShuffledPlaylist().get(idx + 1);
+                    moveTo(shuffledTracks, idx + 1);
                 } else {
-                    idx = ((Playlist) queue).getSongs().indexOf((Song) currentFile);
+                    idx = indexOfCurrent(((Playlist) queue).getSongs());
                     if (idx == ((Playlist) queue).getSongs().size() - 1) {
                         if (repeatMode == 0) {
                             queue = null;
                             isPlaying = false;
                             currentFile = null;
                             timeListened = 0;
-                            nextOutput.put("message",
-                                "Please load a source before skipping to the next track.");
-                            outputs.add(nextOutput);
+                            outputs.add(new MessageOutput("next", command.getUsername(),
+                                command.getTimestamp(),
+                                "Please load a source before skipping to the next track."));
                             return;
                         } else if (repeatMode == 1) {
-                            currentFile = ((Playlist) queue).getSongs().get(0);
+                            moveTo(((Playlist) queue).getSongs(), 0);
                             timeListened = 0;
                             isPlaying = true;
-                            nextOutput.put("message",
+                            outputs.add(new MessageOutput("next", command.getUsername(),
+                                command.getTimestamp(),
                                 "Skipped to next track successfully. The current track is "
-                                    + currentFile.getName() + ".");
-                            outputs.add(nextOutput);
+                                    + currentFile.getName() + "."));
                             return;
                         }
                     }
-                    currentFile = ((Playlist) queue).getSongs().get(idx + 1);
+                    moveTo(((Playlist) queue).getSongs(), idx + 1);
                 }
                 lastCheck = command.getTimestamp();
                 timeListened = 0;
                 isPlaying = true;
-                nextOutput.put("message",
-                    "Skipped to next track successfully. The current track is "
-                        + currentFile.getName() + ".");
+                message = "Skipped to next track successfully. The current track is "
+                    + currentFile.getName() + ".";
             }
         }
-        outputs.add(nextOutput);
+        outputs.add(new MessageOutput("next", command.getUsername(), command.getTimestamp(),
+            message));
     }
 
     /**
      * Play the previous song/episode (if we've already played at least 1 second of the current
      * song/episode) or restart the current one.
      */
-    public void prev(final Command command, final User user, final ArrayNode outputs,
+    public void prev(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode prevOutput = mapper.createObjectNode();
-        prevOutput.put("command", "prev");
-        prevOutput.put("user", command.getUsername());
-        prevOutput.put("timestamp", command.getTimestamp());
+        String message = null;
         update(command.getTimestamp(), user, library);
         if (queue == null) {
-            prevOutput.put("message",
-                "Please load a source before returning to the previous track.");
-            outputs.add(prevOutput);
+            outputs.add(new MessageOutput("prev", command.getUsername(), command.getTimestamp(),
+                "Please load a source before returning to the previous track."));
             return;
         }
         if (queue.getType() == AudioEnum.SONG) {
             timeListened = 0;
             isPlaying = true;
-            prevOutput.put("message",
-                "Returned to previous track successfully. The current track is "
-                    + currentFile.getName() + ".");
+            message = "Returned to previous track successfully. The current track is "
+                + currentFile.getName() + ".";
         } else if (queue.getType() == AudioEnum.PODCAST) {
-            int idx = ((Podcast) queue).getEpisodes().indexOf((Episode) currentFile);
+            int idx = indexOfCurrent(((Podcast) queue).getEpisodes());
             if (timeListened > 0 || idx == 0) {
                 timeListened = 0;
                 isPlaying = true;
                 lastCheck = command.getTimestamp();
-                prevOutput.put("message",
+                outputs.add(new MessageOutput("prev", command.getUsername(), command.getTimestamp(),
                     "Returned to previous track successfully. The current track is "
-                        + currentFile.getName() + ".");
-                outputs.add(prevOutput);
+                        + currentFile.getName() + "."));
                 return;
             }
-            currentFile = ((Podcast) queue).getEpisodes().get(idx - 1);
+            moveTo(((Podcast) queue).getEpisodes(), idx - 1);
             timeListened = 0;
-            prevOutput.put("message",
-                "Returned to previous track successfully. The current track is "
-                    + currentFile.getName() + ".");
+            message = "Returned to previous track successfully. The current track is "
+                + currentFile.getName() + ".";
         } else if (queue.getType() == AudioEnum.PLAYLIST || queue.getType() == AudioEnum.ALBUM) {
             if (timeListened > 0) {
                 timeListened = 0;
                 lastCheck = command.getTimestamp();
                 isPlaying = true;
-                prevOutput.put("message",
+                outputs.add(new MessageOutput("prev", command.getUsername(), command.getTimestamp(),
                     "Returned to previous track successfully. The current track is "
-                        + currentFile.getName() + ".");
-                outputs.add(prevOutput);
+                        + currentFile.getName() + "."));
                 return;
             }
             int idx;
             if (shuffle) {
-                idx = ((Playlist) queue).getShuffledPlaylist().indexOf((Song) currentFile);
+                idx = indexOfCurrent(shuffledTracks);
                 if (idx == 0) {
                     timeListened = 0;
-                    prevOutput.put("message",
-                        "Returned to previous track successfully. The current track is "
-                            + currentFile.getName() + ".");
+                    message = "Returned to previous track successfully. The current track is "
+                        + currentFile.getName() + ".";
                 } else {
-                    currentFile = ((Playlist) queue).getShuffledPlaylist().get(idx - 1);
+                    moveTo(shuffledTracks, idx - 1);
                     timeListened = 0;
-                    prevOutput.put("message",
-                        "Returned to previous track successfully. The current track is "
-                            + currentFile.getName() + ".");
+                    message = "Returned to previous track successfully. The current track is "
+                        + currentFile.getName() + ".";
                 }
 
             } else {
-                idx = ((Playlist) queue).getSongs().indexOf((Song) currentFile);
+                idx = indexOfCurrent(((Playlist) queue).getSongs());
                 if (idx == 0) {
                     timeListened = 0;
-                    prevOutput.put("message",
-                        "Returned to previous track successfully. The current track is "
-                            + currentFile.getName() + ".");
+                    message = "Returned to previous track successfully. The current track is "
+                        + currentFile.getName() + ".";
                 } else {
-                    currentFile = ((Playlist) queue).getSongs().get(idx - 1);
+                    moveTo(((Playlist) queue).getSongs(), idx - 1);
                     timeListened = 0;
-                    prevOutput.put("message",
-                        "Returned to previous track successfully. The current track is "
-                            + currentFile.getName() + ".");
+                    message = "Returned to previous track successfully. The current track is "
+                        + currentFile.getName() + ".";
                 }
             }
         }
         lastCheck = command.getTimestamp();
         isPlaying = true;
 
-        outputs.add(prevOutput);
+        outputs.add(new MessageOutput("prev", command.getUsername(), command.getTimestamp(),
+            message));
     }
 
     /**
      * Go forward 90 seconds on the current podcast episode. If there aren't 90 seconds left in the
      * episode, skip to the next one.
      */
-    public void forward(final Command command, final User user, final ArrayNode outputs,
+    public void forward(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode forwardOutput = mapper.createObjectNode();
-        forwardOutput.put("command", "forward");
-        forwardOutput.put("user", command.getUsername());
-        forwardOutput.put("timestamp", command.getTimestamp());
+        String message;
         update(command.getTimestamp(), user, library);
         if (queue == null) {
-            forwardOutput.put("message", "Please load a source before attempting to forward.");
-            outputs.add(forwardOutput);
+            outputs.add(new MessageOutput("forward", command.getUsername(), command.getTimestamp(),
+                "Please load a source before attempting to forward."));
             return;
         }
         if (queue.getType() != AudioEnum.PODCAST) {
-            forwardOutput.put("message", "The loaded source is not a podcast.");
-            outputs.add(forwardOutput);
+            outputs.add(new MessageOutput("forward", command.getUsername(), command.getTimestamp(),
+                "The loaded source is not a podcast."));
             return;
         }
-        int idx = ((Podcast) queue).getEpisodes().indexOf((Episode) currentFile);
+        int idx = indexOfCurrent(((Podcast) queue).getEpisodes());
         if (timeListened + FW_BW_TIME >= currentFile.getDuration()) {
             if (idx == ((Podcast) queue).getEpisodes().size() - 1) {
-                forwardOutput.put("message", "There are no more episodes to play.");
+                message = "There are no more episodes to play.";
                 queue = null;
                 isPlaying = false;
                 currentFile = null;
-                outputs.add(forwardOutput);
+                outputs.add(new MessageOutput("forward", command.getUsername(),
+                    command.getTimestamp(), message));
                 return;
             }
-            currentFile = ((Podcast) queue).getEpisodes().get(idx + 1);
+            moveTo(((Podcast) queue).getEpisodes(), idx + 1);
             timeListened = 0;
-            forwardOutput.put("message", "Skipped forward successfully.");
-            outputs.add(forwardOutput);
+            outputs.add(new MessageOutput("forward", command.getUsername(), command.getTimestamp(),
+                "Skipped forward successfully."));
             return;
         }
         timeListened += FW_BW_TIME;
-        forwardOutput.put("message", "Skipped forward successfully.");
-        outputs.add(forwardOutput);
+        outputs.add(new MessageOutput("forward", command.getUsername(), command.getTimestamp(),
+            "Skipped forward successfully."));
 
 
     }
@@ -891,56 +882,50 @@ public final class Player {
      * Rewind 90 seconds on the current podcast episode. If we haven't played 90 seconds of the
      * episode yet, restart it.
      */
-    public void backward(final Command command, final User user, final ArrayNode outputs,
+    public void backward(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode backwardOutput = mapper.createObjectNode();
-        backwardOutput.put("command", "backward");
-        backwardOutput.put("user", command.getUsername());
-        backwardOutput.put("timestamp", command.getTimestamp());
         update(command.getTimestamp(), user, library);
         if (queue == null) {
-            backwardOutput.put("message", "Please load a source attempting to backward.");
-            outputs.add(backwardOutput);
+            outputs.add(new MessageOutput("backward", command.getUsername(), command.getTimestamp(),
+                "Please load a source attempting to backward."));
             return;
         }
         if (queue.getType() != AudioEnum.PODCAST) {
-            backwardOutput.put("message", "The loaded source is not a podcast.");
-            outputs.add(backwardOutput);
+            outputs.add(new MessageOutput("backward", command.getUsername(), command.getTimestamp(),
+                "The loaded source is not a podcast."));
             return;
         }
         if (timeListened - FW_BW_TIME < 0) {
             timeListened = 0;
         }
         timeListened -= FW_BW_TIME;
-        backwardOutput.put("message", "Rewound successfully.");
-        outputs.add(backwardOutput);
+        outputs.add(new MessageOutput("backward", command.getUsername(), command.getTimestamp(),
+            "Rewound successfully."));
     }
 
     /**
      * Add a song to the song history. To be used in payout.
      */
-    public void addSongHistory(final String name, final String artist) {
-        for (SongHistory song : songHistory) {
-            if (song.getName().equals(name) && song.getArtist().equals(artist)) {
-                song.addListen();
-                return;
-            }
-        }
-        songHistory.add(new SongHistory(name, artist));
+    public void addSongHistory(final Song song) {
+        addListen(songHistory, song);
     }
 
     /**
      * Add a song to the premium song history. To be used in payout.
      */
-    public void addPremiumSongHistory(final String name, final String artist) {
-        for (SongHistory song : premiumSongHistory) {
-            if (song.getName().equals(name) && song.getArtist().equals(artist)) {
-                song.addListen();
-                return;
-            }
+    public void addPremiumSongHistory(final Song song) {
+        addListen(premiumSongHistory, song);
+    }
+
+    private static void addListen(final Map<Long, SongHistory> history, final Song song) {
+        // the songs with the same name and artist are counted together
+        long key = ((long) song.getArtistId() << Integer.SIZE) | song.getId();
+        SongHistory listened = history.get(key);
+        if (listened == null) {
+            history.put(key, new SongHistory(song));
+        } else {
+            listened.addListen();
         }
-        premiumSongHistory.add(new SongHistory(name, artist));
     }
 
 
@@ -949,22 +934,16 @@ public final class Player {
      * (overwrites everything in the player)
      */
     public void loadRecommendations(final Command command, final User user,
-        final ArrayNode outputs, final Library myLibrary) {
+        final OutputSink outputs, final Library myLibrary) {
         update(command.getTimestamp(), user, myLibrary);
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode loadRecommendationsOutput = mapper.createObjectNode();
-        loadRecommendationsOutput.put("command", "loadRecommendations");
-        loadRecommendationsOutput.put("user", command.getUsername());
-        loadRecommendationsOutput.put("timestamp", command.getTimestamp());
         if (user.getSongRecommendation() == null && user.getPlaylistRecommendation() == null) {
-            loadRecommendationsOutput.put("message", "No recommendations available.");
-            outputs.add(loadRecommendationsOutput);
+            outputs.add(new MessageOutput("loadRecommendations", command.getUsername(),
+                command.getTimestamp(), "No recommendations available."));
             return;
         }
         if (user.getLastRecommendation().equals("song")) {
-            loadRecommendationsOutput.put("message",
-                "Playback loaded successfully.");
-            outputs.add(loadRecommendationsOutput);
+            outputs.add(new MessageOutput("loadRecommendations", command.getUsername(),
+                command.getTimestamp(), "Playback loaded successfully."));
             queue = user.getSongRecommendation();
             currentFile = user.getSongRecommendation();
             timeListened = 0;
@@ -974,30 +953,17 @@ public final class Player {
             lastCheck = command.getTimestamp();
             addSongStat(user, myLibrary);
         } else {
-            loadRecommendationsOutput.put("message",
-                "Playlist recommendation successfully loaded.");
-            outputs.add(loadRecommendationsOutput);
+            outputs.add(new MessageOutput("loadRecommendations", command.getUsername(),
+                command.getTimestamp(), "Playlist recommendation successfully loaded."));
             queue = user.getPlaylistRecommendation();
             currentFile = user.getPlaylistRecommendation().getSongs().get(0);
+            shuffledTracks = user.getPlaylistRecommendation().getSongs();
             timeListened = 0;
             isPlaying = true;
             adBreak = false;
             adPrice = 0;
             lastCheck = command.getTimestamp();
-            Song currentSong = (Song) currentFile;
-            user.addArtistListen(currentSong.getArtist());
-            user.addGenreListen(currentSong.getGenre());
-            user.addAlbumListen(currentSong.getAlbum());
-            user.addSongListen(currentSong.getName());
-            Artist artist = myLibrary.findArtist(currentSong.getArtist());
-            artist.addSongListen(currentSong.getName());
-            artist.addAlbumListen(currentSong.getAlbum());
-            artist.addListener(user.getUsername());
-            if (!user.isPremium()) {
-                addSongHistory(currentSong.getName(), currentSong.getArtist());
-            } else {
-                addPremiumSongHistory(currentSong.getName(), currentSong.getArtist());
-            }
+            addSongStat(user, myLibrary);
         }
 
     }
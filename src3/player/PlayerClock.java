@@ -0,0 +1,70 @@
+package player;
+
+import audio.lists.Library;
+import user.User;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the players of the users of a library in a timing wheel, by the time of their next
+ * boundary event (the end of the current track, ad or episode, after which the player moves on
+ * or stops). Bringing all the players to a timestamp only updates the ones that reach an event
+ * by then. The players of podcasts are always due, since updating them saves their progress.
+ */
+public final class PlayerClock {
+
+    private final TimingWheel<User> wheel = new TimingWheel<>(0);
+    // users in the order they were added to the library, the order their players are updated in
+    private final Map<User, Integer> order = new IdentityHashMap<>();
+    private int added;
+
+    /**
+     * Start keeping track of a user's player.
+     */
+    public void register(final User user) {
+        order.put(user, added++);
+        reschedule(user);
+    }
+
+    /**
+     * Stop keeping track of a (deleted) user's player.
+     */
+    public void unregister(final User user) {
+        order.remove(user);
+        wheel.cancel(user);
+    }
+
+    /**
+     * Schedule the next event of a user's player, to be called after the player changed. Users
+     * that were not registered are ignored.
+     */
+    public void reschedule(final User user) {
+        if (!order.containsKey(user)) {
+            return;
+        }
+        long next = user.getPlayer().nextEvent(user);
+        if (next == Player.NO_EVENT) {
+            wheel.cancel(user);
+        } else {
+            wheel.schedule(user, next);
+        }
+    }
+
+    /**
+     * Update, in the order of the users, the players that reach an event by the given timestamp.
+     *
+     * @return the users whose players were updated
+     */
+    public List<User> advance(final int timestamp, final Library library) {
+        List<User> due = wheel.advance(timestamp);
+        due.sort(Comparator.comparingInt(order::get));
+        for (User user : due) {
+            user.getPlayer().update(timestamp, user, library);
+            reschedule(user);
+        }
+        return due;
+    }
+}
@@ -0,0 +1,181 @@
+package player;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel. Every level has 64 slots, a slot of level k spanning 64^k ticks:
+ * an item goes to the level of the highest base-64 digit in which its deadline differs from the
+ * current time, in the slot of that digit. Moving the time visits only the non-empty slots (found
+ * in a bitmap per level), and the items of a slot of an upper level are spread over the lower
+ * ones when the time reaches it, so scheduling, cancelling and expiring an item are O(1)
+ * (amortized over the levels) however far its deadline is.
+ *
+ * @param <T> is the type of the scheduled items
+ */
+public final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = (Long.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+    private final List<List<Entry<T>>> slots = new ArrayList<>();
+    private final long[] occupied = new long[LEVELS];
+    // items scheduled at or before the current time
+    private final List<Entry<T>> expired = new ArrayList<>();
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private long now;
+
+    /**
+     * @param start is the current time
+     */
+    public TimingWheel(final long start) {
+        now = start;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(null);
+        }
+    }
+
+    /**
+     * Schedule an item, replacing its previous deadline.
+     */
+    public void schedule(final T item, final long deadline) {
+        cancel(item);
+        Entry<T> entry = new Entry<>(item, deadline);
+        entries.put(item, entry);
+        place(entry);
+    }
+
+    /**
+     * Remove an item from the wheel, if it is there.
+     */
+    public void cancel(final T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * @return whether an item is scheduled
+     */
+    public boolean contains(final T item) {
+        return entries.containsKey(item);
+    }
+
+    /**
+     * Move the time forward and remove the items that are due by then.
+     *
+     * @param time is the new time (an earlier one only collects the items already due by then)
+     * @return the items with a deadline not after the given time, in no particular order
+     */
+    public List<T> advance(final long time) {
+        boolean moved = true;
+        while (now < time && moved) {
+            moved = step(time);
+        }
+        now = Math.max(now, time);
+        List<T> due = new ArrayList<>();
+        for (int i = expired.size() - 1; i >= 0; i--) {
+            Entry<T> entry = expired.get(i);
+            if (entry.deadline <= time) {
+                unlink(entry);
+                entries.remove(entry.item);
+                due.add(entry.item);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Move the time to the next non-empty slot, if it is not after the given time, and spread its
+     * items.
+     *
+     * @return false if there is no such slot
+     */
+    private boolean step(final long time) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            int digit = digit(now, level);
+            long later = digit == SLOTS - 1 ? 0 : occupied[level] & (-1L << (digit + 1));
+            if (later == 0) {
+                continue;
+            }
+            int slot = Long.numberOfTrailingZeros(later);
+            // the current time with the digit of the slot and zeros below it
+            long upper = shift + SLOT_BITS >= Long.SIZE ? 0 : -1L << (shift + SLOT_BITS);
+            long start = now & upper | ((long) slot << shift);
+            if (start > time) {
+                return false;
+            }
+            now = start;
+            List<Entry<T>> reached = slots.get(level * SLOTS + slot);
+            slots.set(level * SLOTS + slot, null);
+            occupied[level] &= ~(1L << slot);
+            for (Entry<T> entry : reached) {
+                place(entry);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void place(final Entry<T> entry) {
+        if (entry.deadline <= now) {
+            entry.level = -1;
+            entry.index = expired.size();
+            expired.add(entry);
+            return;
+        }
+        int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(entry.deadline ^ now)) / SLOT_BITS;
+        int slot = digit(entry.deadline, level);
+        List<Entry<T>> list = slots.get(level * SLOTS + slot);
+        if (list == null) {
+            list = new ArrayList<>();
+            slots.set(level * SLOTS + slot, list);
+            occupied[level] |= 1L << slot;
+        }
+        entry.level = level;
+        entry.slot = slot;
+        entry.index = list.size();
+        list.add(entry);
+    }
+
+    private void unlink(final Entry<T> entry) {
+        List<Entry<T>> list;
+        if (entry.level < 0) {
+            list = expired;
+        } else {
+            list = slots.get(entry.level * SLOTS + entry.slot);
+        }
+        // the last entry takes the place of the removed one
+        Entry<T> last = list.remove(list.size() - 1);
+        if (last != entry) {
+            list.set(entry.index, last);
+            last.index = entry.index;
+        }
+        if (entry.level >= 0 && list.isEmpty()) {
+            slots.set(entry.level * SLOTS + entry.slot, null);
+            occupied[entry.level] &= ~(1L << entry.slot);
+        }
+    }
+
+    private static int digit(final long time, final int level) {
+        return (int) ((time >>> (level * SLOT_BITS)) & (SLOTS - 1));
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadline;
+        private int level;
+        private int slot;
+        private int index;
+
+        Entry(final T item, final long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -5,21 +5,26 @@ import audio.lists.Library;
 import audio.lists.Podcast;
 import audio.lists.AudioList;
 import audio.lists.Playlist;
+import audio.lists.SongQueryPlan;
 import enums.AudioEnum;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import commands.Command;
 import enums.Page;
+import enums.SearchScope;
 import enums.Status;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import audio.item.AudioItem;
 import lombok.Getter;
 import lombok.Setter;
 import specialusers.Artist;
 import user.User;
-import audio.files.Song;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import audio.files.AudioFile;
+import audio.files.Filters;
+import output.MessageOutput;
+import output.OutputSink;
+import output.SearchOutput;
 
 @Getter
 @Setter
@@ -42,20 +47,13 @@ public final class SearchBar {
      * provided through the command object.
      */
     public void search(final Command command, final Library library, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         searchResults = new ArrayList<>();
         searchedUsers = new ArrayList<>();
         if (user.getStatus() == Status.OFFLINE) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode searchOutput = mapper.createObjectNode();
-            searchOutput.put("command", "search");
-            searchOutput.put("user", command.getUsername());
-            searchOutput.put("timestamp", command.getTimestamp());
-            searchOutput.put("message", user.getUsername() + " is offline.");
             // add an empty array of results
-            ArrayList<Integer> emptyVec = new ArrayList<Integer>();
-            searchOutput.putPOJO("results", emptyVec);
-            outputs.add(searchOutput);
+            outputs.add(new SearchOutput(command.getUsername(), command.getTimestamp(),
+                user.getUsername() + " is offline.", new ArrayList<>()));
             return;
         }
         user.getPlayer().update(command.getTimestamp(), user, library);
@@ -65,153 +63,99 @@ public final class SearchBar {
         user.getPlayer().setPlaying(false);
         user.getPlayer().setRepeatMode(0);
         user.getPlayer().setShuffle(false);
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode searchOutput = mapper.createObjectNode();
-        searchOutput.put("command", "search");
-        searchOutput.put("user", command.getUsername());
-        searchOutput.put("timestamp", command.getTimestamp());
-        switch (command.getType()) {
-            case "song" -> {
-                int countFilters = 0;
-                if (command.getFilters().getName() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getArtist() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getAlbum() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getTags() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getLyrics() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getGenre() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getReleaseYear() != null) {
-                    countFilters++;
-                }
-                for (Song song : library.getSongs()) {
-                    int nrMatches = 0;
-                    if (command.getFilters().getName() != null) {
-                        if (song.getName().toLowerCase()
-                            .startsWith(command.getFilters().getName().toLowerCase())) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getArtist() != null) {
+        SearchScope scope = SearchScope.fromType(command.getType());
+        if (scope == null) {
+            return;
+        }
+        // repeated searches are answered from the cache until their collection changes
+        List<Object> signature = signature(command, user);
+        long version = library.getVersion(scope);
+        SearchCache.Result cached = library.getSearchCache().get(signature, version);
+        if (cached != null) {
+            searchResults = new ArrayList<>(cached.getItems());
+            searchedUsers = new ArrayList<>(cached.getUsers());
+        } else {
+            find(command, library, user);
+            library.getSearchCache().put(signature, version, searchResults, searchedUsers);
+        }
+        ArrayList<String> resultNames = new ArrayList<>();
+        for (AudioItem item : searchResults) {
+            if (item.getType() == AudioEnum.SONG) {
+                resultNames.add(((AudioFile) item).getName());
+            } else {
+                resultNames.add(((AudioList) item).getName());
+            }
+        }
+        for (User item : searchedUsers) {
+            resultNames.add(item.getUsername());
+        }
+        outputs.add(new SearchOutput(command.getUsername(), command.getTimestamp(),
+            "Search returned " + resultNames.size() + " results", resultNames));
+        searched = switch (scope) {
+            case ARTIST -> SEARCHED_ARTIST;
+            case HOST -> SEARCHED_HOST;
+            default -> SEARCHED_AUDIO;
+        };
+    }
 
-                        if (song.getArtist().contentEquals(command.getFilters().getArtist())) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getAlbum() != null) {
-                        if (song.getAlbum().equals(command.getFilters().getAlbum())) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getTags() != null) {
-                        int nrFittingTags = 0;
-                        for (String tag : command.getFilters().getTags()) {
-                            if (song.getTags().contains(tag)) {
-                                nrFittingTags++;
-                            }
-                        }
-                        if (nrFittingTags == command.getFilters().getTags().size()) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getLyrics() != null) {
-                        if (song.getLyrics().toLowerCase()
-                            .contains(command.getFilters().getLyrics().toLowerCase())) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getGenre() != null) {
-                        String genre = command.getFilters().getGenre().substring(0, 1).toUpperCase()
-                            + command.getFilters().getGenre().substring(1);
-                        if (song.getGenre().equalsIgnoreCase(genre)) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getReleaseYear() != null) {
-                        int releaseYear = Integer.parseInt(
-                            command.getFilters().getReleaseYear().substring(1));
-                        if (command.getFilters().getReleaseYear().charAt(0) == '<') {
-                            if (releaseYear > song.getReleaseYear()) {
-                                nrMatches++;
-                            }
-                        } else {
-                            if (releaseYear < song.getReleaseYear()) {
-                                nrMatches++;
-                            }
-                        }
-                    }
-                    if (nrMatches == countFilters && searchResults.size() < MAX_SIZE) {
-                        searchResults.add(song);
-                    }
+    /**
+     * @return the signature of a search: its type and its filters, normalized the way the search
+     * compares them (so equivalent searches share the signature); playlist searches also depend
+     * on the user who searches
+     */
+    private static List<Object> signature(final Command command, final User user) {
+        Filters filters = command.getFilters();
+        return switch (command.getType()) {
+            case "song" -> {
+                List<String> tags = null;
+                if (filters.getTags() != null) {
+                    tags = new ArrayList<>(filters.getTags());
+                    Collections.sort(tags);
                 }
-                if (searchResults.isEmpty()) {
+                yield Arrays.asList("song", lowerCase(filters.getName()), filters.getArtist(),
+                    filters.getAlbum(), tags, lowerCase(filters.getLyrics()),
+                    lowerCase(filters.getGenre()), filters.getReleaseYear());
+            }
+            case "playlist" -> Arrays.asList("playlist", user.getUsername(), filters.getName(),
+                filters.getOwner());
+            case "album" -> Arrays.asList("album", filters.getName(), filters.getOwner(),
+                filters.getDescription());
+            default -> Arrays.asList(command.getType(), filters.getName(), filters.getOwner());
+        };
+    }
 
-                    searchOutput.put("message", "Search returned 0 results");
-                    searchOutput.putPOJO("results", searchResults);
-                    outputs.add(searchOutput);
-                } else {
-                    ArrayNode resultNames = mapper.createArrayNode();
+    private static String lowerCase(final String text) {
+        if (text == null) {
+            return null;
+        }
+        return text.toLowerCase();
+    }
 
-                    for (AudioItem item : searchResults) {
-                        resultNames.add(((Song) item).getName());
-                    }
-                    searchOutput.put("message",
-                        "Search returned " + searchResults.size() + " results");
-                    searchOutput.put("results", resultNames);
-                    outputs.add(searchOutput);
-                }
-                searched = 1;
+    /**
+     * Run a search against the library, filling the search results.
+     */
+    private void find(final Command command, final Library library, final User user) {
+        switch (command.getType()) {
+            case "song" -> {
+                SongQueryPlan plan = library.getSongFilters().plan(command.getFilters());
+                searchResults.addAll(plan.run(MAX_SIZE));
+                library.getSearchCache().recordPlan(plan);
             }
             case "podcast" -> {
-                int countFilters = 0;
+                List<Podcast> candidates = library.getPodcasts();
                 if (command.getFilters().getName() != null) {
-                    countFilters++;
+                    candidates = library.getPodcastNames()
+                        .startingWith(command.getFilters().getName());
                 }
-                if (command.getFilters().getOwner() != null) {
-                    countFilters++;
-                }
-                for (Podcast podcast : library.getPodcasts()) {
-                    int nrMatches = 0;
-                    if (command.getFilters().getName() != null) {
-                        if (podcast.getName().startsWith(command.getFilters().getName())) {
-                            nrMatches++;
-                        }
-                    }
-                    if (command.getFilters().getOwner() != null) {
-                        if (podcast.getOwner().equals(command.getFilters().getOwner())) {
-                            nrMatches++;
-                        }
-                    }
-                    if (nrMatches == countFilters && searchResults.size() < MAX_SIZE) {
+                for (Podcast podcast : candidates) {
+                    if (command.getFilters().getOwner() == null
+                        || podcast.getOwner().equals(command.getFilters().getOwner())) {
                         searchResults.add(podcast);
+                        if (searchResults.size() == MAX_SIZE) {
+                            break;
+                        }
                     }
                 }
-                if (searchResults.isEmpty()) {
-                    searchOutput.put("message", "Search returned 0 results");
-                    searchOutput.putPOJO("results", searchResults);
-                    outputs.add(searchOutput);
-                } else {
-                    ArrayNode resultNames = mapper.createArrayNode();
-                    for (AudioItem item : searchResults) {
-                        resultNames.add(((Podcast) item).getName());
-                    }
-                    searchOutput.put("message",
-                        "Search returned " + searchResults.size() + " results");
-                    searchOutput.put("results", resultNames);
-
-                    outputs.add(searchOutput);
-                }
-                searched = 1;
             }
             case "playlist" -> {
                 if (command.getFilters().getName() != null) {
@@ -221,10 +165,12 @@ public final class SearchBar {
                             searchResults.add(playlist);
                         }
                     }
-                    for (Playlist playlist : library.getPlaylists()) {
-                        if (playlist.getName().startsWith(command.getFilters().getName())
-                            && searchResults.size() < MAX_SIZE && !playlist.getOwner().equals(user)
-                            && playlist.getIsPrivate() == 0) {
+                    for (Playlist playlist : library.getPlaylistNames()
+                        .startingWith(command.getFilters().getName())) {
+                        if (searchResults.size() == MAX_SIZE) {
+                            break;
+                        }
+                        if (!playlist.getOwner().equals(user) && playlist.getIsPrivate() == 0) {
                             searchResults.add(playlist);
                         }
                     }
@@ -246,139 +192,53 @@ public final class SearchBar {
                         }
                     }
                 }
-                if (searchResults.isEmpty()) {
-                    searchOutput.put("message", "Search returned 0 results");
-                    ArrayList<Integer> emptyVec = new ArrayList<Integer>();
-                    searchOutput.putPOJO("results", emptyVec);
-                    outputs.add(searchOutput);
-                } else {
-                    ArrayNode resultNames = mapper.createArrayNode();
-
-                    for (AudioItem item : searchResults) {
-                        resultNames.add(((Playlist) item).getName());
-                    }
-                    searchOutput.put("message",
-                        "Search returned " + searchResults.size() + " results");
-                    searchOutput.put("results", resultNames);
-                    outputs.add(searchOutput);
-                }
-                searched = SEARCHED_AUDIO;
             }
             case "album" -> {
-                int countFilters = 0;
+                // the albums are visited by the order of their artists in the library, then by
+                // their own order: the prefix tree keeps them so, and so do the artists' lists
+                List<Album> candidates = new ArrayList<>();
                 if (command.getFilters().getName() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getOwner() != null) {
-                    countFilters++;
-                }
-                if (command.getFilters().getDescription() != null) {
-                    countFilters++;
-                }
-                for (Artist artist : library.getArtists()) {
-                    for (Album album : artist.getAlbums()) {
-                        int nrMatches = 0;
-                        if (command.getFilters().getName() != null) {
-                            if (album.getName().startsWith(command.getFilters().getName())) {
-                                nrMatches++;
-                            }
-                        }
-                        if (command.getFilters().getOwner() != null) {
-                            if (album.getOwner().getUsername()
-                                .startsWith(command.getFilters().getOwner())) {
-                                nrMatches++;
-                            }
-                        }
-                        if (command.getFilters().getDescription() != null) {
-                            if (album.getDescription()
-                                .startsWith(command.getFilters().getDescription())) {
-                                nrMatches++;
-                            }
-                        }
-                        if (nrMatches == countFilters && searchResults.size() < MAX_SIZE) {
-                            searchResults.add(album);
-                        }
+                    candidates = library.getAlbumNames()
+                        .startingWith(command.getFilters().getName());
+                } else {
+                    for (Artist artist : library.getArtists()) {
+                        candidates.addAll(artist.getAlbums());
                     }
                 }
-                if (searchResults.isEmpty()) {
-                    searchOutput.put("message", "Search returned 0 results");
-                    searchOutput.putPOJO("results", searchResults);
-                    outputs.add(searchOutput);
-                } else {
-                    searchResults.sort((o1, o2) -> {
-                        // get indexes of artists in the library
-                        int index1 = library.getArtists().indexOf(((Album) o1).getOwner());
-                        int index2 = library.getArtists().indexOf(((Album) o2).getOwner());
-                        // if indexes are equal, sort after position in the library
-                        if (index1 == index2) {
-                            return library.getAlbums().indexOf(o1)
-                                - library.getAlbums().indexOf(o2);
+                String owner = command.getFilters().getOwner();
+                String description = command.getFilters().getDescription();
+                for (Album album : candidates) {
+                    if ((owner == null || album.getOwner().getUsername().startsWith(owner))
+                        && (description == null || album.getDescription()
+                        .startsWith(description))) {
+                        searchResults.add(album);
+                        if (searchResults.size() == MAX_SIZE) {
+                            break;
                         }
-                        // else sort after index
-                        return index1 - index2;
-                    });
-                    ArrayNode resultNames = mapper.createArrayNode();
-                    for (AudioItem item : searchResults) {
-                        resultNames.add(((AudioList) item).getName());
                     }
-                    searchOutput.put("message",
-                        "Search returned " + searchResults.size() + " results");
-                    searchOutput.put("results", resultNames);
-                    outputs.add(searchOutput);
                 }
-                searched = SEARCHED_AUDIO;
             }
             case "artist" -> {
                 if (command.getFilters().getName() != null) {
-                    for (User artist : library.getArtists()) {
-                        if (artist.getUsername().startsWith(command.getFilters().getName())
-                            && searchedUsers.size() < MAX_SIZE) {
-                            searchedUsers.add(artist);
+                    for (User artist : library.getArtistNames()
+                        .startingWith(command.getFilters().getName())) {
+                        searchedUsers.add(artist);
+                        if (searchedUsers.size() == MAX_SIZE) {
+                            break;
                         }
                     }
                 }
-                if (searchedUsers.isEmpty()) {
-                    searchOutput.put("message", "Search returned 0 results");
-                    searchOutput.putPOJO("results", searchedUsers);
-                    outputs.add(searchOutput);
-                } else {
-                    ArrayNode resultNames = mapper.createArrayNode();
-
-                    for (User item : searchedUsers) {
-                        resultNames.add(item.getUsername());
-                    }
-                    searchOutput.put("message",
-                        "Search returned " + searchedUsers.size() + " results");
-                    searchOutput.put("results", resultNames);
-                    outputs.add(searchOutput);
-                }
-                searched = SEARCHED_ARTIST;
             }
             case "host" -> {
                 if (command.getFilters().getName() != null) {
-                    for (User host : library.getHosts()) {
-                        if (host.getUsername().startsWith(command.getFilters().getName())
-                            && searchedUsers.size() < MAX_SIZE) {
-                            searchedUsers.add(host);
+                    for (User host : library.getHostNames()
+                        .startingWith(command.getFilters().getName())) {
+                        searchedUsers.add(host);
+                        if (searchedUsers.size() == MAX_SIZE) {
+                            break;
                         }
                     }
                 }
-                if (searchedUsers.isEmpty()) {
-                    searchOutput.put("message", "Search returned 0 results");
-                    searchOutput.putPOJO("results", searchedUsers);
-                    outputs.add(searchOutput);
-                } else {
-                    ArrayNode resultNames = mapper.createArrayNode();
-
-                    for (User item : searchedUsers) {
-                        resultNames.add(item.getUsername());
-                    }
-                    searchOutput.put("message",
-                        "Search returned " + searchedUsers.size() + " results");
-                    searchOutput.put("results", resultNames);
-                    outputs.add(searchOutput);
-                }
-                searched = SEARCHED_HOST;
             }
             default -> {
                 return;
@@ -389,55 +249,34 @@ public final class SearchBar {
     /**
      * From the search results, select an item.
      */
-    public void select(final Command command, final ArrayNode outputs, final User user) {
+    public void select(final Command command, final OutputSink outputs, final User user) {
         if (searchResults.isEmpty() && searched == 0) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode selectOutput = mapper.createObjectNode();
-            selectOutput.put("command", "select");
-            selectOutput.put("user", command.getUsername());
-            selectOutput.put("timestamp", command.getTimestamp());
-            selectOutput.put("message", "Please conduct a search before making a selection.");
-            outputs.add(selectOutput);
+            outputs.add(new MessageOutput("select", command.getUsername(), command.getTimestamp(),
+                "Please conduct a search before making a selection."));
             selected = null;
             return;
         }
         if (searched == SEARCHED_AUDIO) {
             if (command.getItemNumber() > searchResults.size()) {
-
-                ObjectMapper mapper = new ObjectMapper();
-                ObjectNode selectOutput = mapper.createObjectNode();
-                selectOutput.put("command", "select");
-                selectOutput.put("user", command.getUsername());
-                selectOutput.put("timestamp", command.getTimestamp());
-                selectOutput.put("message", "The selected ID is too high.");
                 selected = null;
-                outputs.add(selectOutput);
+                outputs.add(new MessageOutput("select", command.getUsername(),
+                    command.getTimestamp(), "The selected ID is too high."));
             } else {
                 selected = searchResults.get(command.getItemNumber() - 1);
-                ObjectMapper mapper = new ObjectMapper();
-                ObjectNode selectOutput = mapper.createObjectNode();
-                selectOutput.put("command", "select");
-                selectOutput.put("user", command.getUsername());
-                selectOutput.put("timestamp", command.getTimestamp());
+                String message;
                 if (selected.getType() == AudioEnum.SONG) {
-                    selectOutput.put("message",
-                        "Successfully selected " + ((AudioFile) selected).getName() + ".");
+                    message = "Successfully selected " + ((AudioFile) selected).getName() + ".";
                 } else {
-                    selectOutput.put("message",
-                        "Successfully selected " + ((AudioList) selected).getName() + ".");
+                    message = "Successfully selected " + ((AudioList) selected).getName() + ".";
                 }
-                outputs.add(selectOutput);
+                outputs.add(new MessageOutput("select", command.getUsername(),
+                    command.getTimestamp(), message));
             }
         } else {
             if (command.getItemNumber() > searchedUsers.size()) {
-                ObjectMapper mapper = new ObjectMapper();
-                ObjectNode selectOutput = mapper.createObjectNode();
-                selectOutput.put("command", "select");
-                selectOutput.put("user", command.getUsername());
-                selectOutput.put("timestamp", command.getTimestamp());
-                selectOutput.put("message", "The selected ID is too high.");
                 selected = null;
-                outputs.add(selectOutput);
+                outputs.add(new MessageOutput("select", command.getUsername(),
+                    command.getTimestamp(), "The selected ID is too high."));
             } else {
                 selectedUser = searchedUsers.get(command.getItemNumber() - 1);
                 if (searched == SEARCHED_ARTIST) {
@@ -446,14 +285,9 @@ public final class SearchBar {
                     user.setCurrentPage(Page.HOST);
                 }
                 user.setPageOwner(selectedUser.getUsername());
-                ObjectMapper mapper = new ObjectMapper();
-                ObjectNode selectOutput = mapper.createObjectNode();
-                selectOutput.put("command", "select");
-                selectOutput.put("user", command.getUsername());
-                selectOutput.put("timestamp", command.getTimestamp());
-                selectOutput.put("message",
-                    "Successfully selected " + selectedUser.getUsername() + "'s page.");
-                outputs.add(selectOutput);
+                outputs.add(new MessageOutput("select", command.getUsername(),
+                    command.getTimestamp(),
+                    "Successfully selected " + selectedUser.getUsername() + "'s page."));
             }
         }
         searched = 0;
@@ -462,28 +296,24 @@ public final class SearchBar {
     /**
      * Subscribe/unsubscribe to an artist/host.
      */
-    public void subscribe(final Command command, final ArrayNode outputs, final User user) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode subscribeOutput = mapper.createObjectNode();
-        subscribeOutput.put("command", "subscribe");
-        subscribeOutput.put("user", command.getUsername());
-        subscribeOutput.put("timestamp", command.getTimestamp());
+    public void subscribe(final Command command, final OutputSink outputs, final User user) {
         if (user.getPageOwner() == null) {
-            subscribeOutput.put("message",
-                "You can't subscribe to a user's page if you haven't selected one.");
-            outputs.add(subscribeOutput);
+            outputs.add(new MessageOutput("subscribe", command.getUsername(),
+                command.getTimestamp(),
+                "You can't subscribe to a user's page if you haven't selected one."));
             return;
         }
         User subUser = user.getLibrary().findUser(user.getPageOwner());
         int ret = subUser.addSubscriber(user);
+        String message;
         if (ret == -1) {
-            subscribeOutput.put("message",
-                user.getUsername() + " unsubscribed from " + user.getPageOwner()
-                    + " successfully.");
+            message = user.getUsername() + " unsubscribed from " + user.getPageOwner()
+                + " successfully.";
         } else {
-            subscribeOutput.put("message",
-                user.getUsername() + " subscribed to " + user.getPageOwner() + " successfully.");
+            message = user.getUsername() + " subscribed to " + user.getPageOwner()
+                + " successfully.";
         }
-        outputs.add(subscribeOutput);
+        outputs.add(new MessageOutput("subscribe", command.getUsername(), command.getTimestamp(),
+            message));
     }
 }
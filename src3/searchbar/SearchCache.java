@@ -0,0 +1,114 @@
+package searchbar;
+
+import audio.item.AudioItem;
+import audio.lists.SongQueryPlan;
+import lombok.AccessLevel;
+import lombok.Getter;
+import user.User;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least recently used cache of search results, shared by all the users of a library. The results
+ * are keyed by the signature of the search (its type and normalized filters) and remember the
+ * version their collection had when they were computed: once the library changes that version,
+ * the results are stale and are dropped on their next lookup. Next to its own counters, it keeps
+ * those of the song searches it missed (see {@link SongQueryPlan}), for diagnostics.
+ */
+@Getter
+public final class SearchCache {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int capacity;
+    @Getter(AccessLevel.NONE)
+    private final Map<List<Object>, Result> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    // diagnostics of the song searches that missed the cache
+    private SongQueryPlan lastSongPlan;
+    private long songSearches;
+    private long songsVisited;
+    private long songsChecked;
+
+    public SearchCache(final int capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(capacity, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Object>, Result> eldest) {
+                if (size() > SearchCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param signature is the signature of the search
+     * @param version   is the current version of the searched collection
+     * @return the cached results, or null if there are none for this version
+     */
+    public Result get(final List<Object> signature, final long version) {
+        Result result = entries.get(signature);
+        if (result != null && result.version != version) {
+            entries.remove(signature);
+            result = null;
+        }
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return result;
+    }
+
+    /**
+     * Remember the results of a search. The lists are copied.
+     */
+    public void put(final List<Object> signature, final long version,
+        final List<AudioItem> items, final List<User> users) {
+        entries.put(signature, new Result(version, List.copyOf(items), List.copyOf(users)));
+    }
+
+    /**
+     * Remember the counters of a song search that was run against the library.
+     */
+    public void recordPlan(final SongQueryPlan plan) {
+        lastSongPlan = plan;
+        songSearches++;
+        songsVisited += plan.getCandidates();
+        songsChecked += plan.getEvaluations();
+    }
+
+    /**
+     * @return the fraction of the lookups answered from the cache
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        if (lookups == 0) {
+            return 0;
+        }
+        return (double) hits / lookups;
+    }
+
+    /**
+     * The (read-only) results of a search.
+     */
+    @Getter
+    public static final class Result {
+        private final long version;
+        private final List<AudioItem> items;
+        private final List<User> users;
+
+        Result(final long version, final List<AudioItem> items, final List<User> users) {
+            this.version = version;
+            this.items = items;
+            this.users = users;
+        }
+    }
+}
@@ -1,24 +1,31 @@
 package specialusers;
 
 import artistentities.Event;
+import artistentities.ListenCounter;
 import artistentities.Listens;
 import artistentities.Merch;
 import audio.files.Song;
 import audio.lists.Album;
 import audio.lists.Library;
-import audio.lists.Playlist;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import commands.Command;
 import enums.UserType;
 import fileio.input.SongInput;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import user.Notification;
 import user.User;
+import output.AlbumDetails;
+import output.ArtistWrapped;
+import output.MessageOutput;
+import output.OutputSink;
+import output.ResultOutput;
+import player.LoadedContent;
 
 @Getter
 @Setter
@@ -34,17 +41,20 @@ public final class Artist extends User {
     private ArrayList<Merch> merches = new ArrayList<>();
     private ArrayList<Event> events = new ArrayList<>();
     private int likes;
-    private ArrayList<Listens> listeners;
+    private ListenCounter listeners;
     private double songRevenue;
     private double merchRevenue;
     private String mostProfitableSong;
     private ArrayList<Revenues> songProfits = new ArrayList<>();
+    // the same revenues, by the id of the song name
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, Revenues> songProfitsById = new HashMap<>();
 
 
     public Artist(final String username, final Integer age, final String city) {
         super(username, age, city, UserType.ARTIST);
         this.likes = 0;
-        this.listeners = new ArrayList<>();
+        this.listeners = new ListenCounter(true);
         this.songRevenue = 0;
         this.merchRevenue = 0;
     }
@@ -55,19 +65,14 @@ public final class Artist extends User {
      */
     @Override
     public void addAlbumReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addAlbumOutput = mapper.createObjectNode();
-        addAlbumOutput.put("command", "addAlbum");
-        addAlbumOutput.put("user", command.getUsername());
-        addAlbumOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs) {
 
         for (Album album : albums) {
             if (album.getName().equals(command.getName())) {
                 //album already exists
-                addAlbumOutput.put("message",
-                    command.getUsername() + " has another album with the same name.");
-                outputs.add(addAlbumOutput);
+                outputs.add(new MessageOutput("addAlbum", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " has another album with the same name."));
                 return;
             }
         }
@@ -81,9 +86,8 @@ public final class Artist extends User {
         Set<String> songsSet = Set.copyOf(songNames);
         if (songNames.size() != songsSet.size()) {
             // same song appears twice
-            addAlbumOutput.put("message",
-                command.getUsername() + " has the same song at least twice in this album.");
-            outputs.add(addAlbumOutput);
+            outputs.add(new MessageOutput("addAlbum", command.getUsername(), command.getTimestamp(),
+                command.getUsername() + " has the same song at least twice in this album."));
             return;
         }
         Album album = new Album(command.getName(), this, command.getTimestamp(),
@@ -91,19 +95,19 @@ public final class Artist extends User {
         for (SongInput song : songs) {
             // see if it exists in the library
             Song newSong = new Song(song);
-            myLibrary.getSongs().add(newSong);
+            myLibrary.addSong(newSong);
             album.getSongs().add(newSong);
         }
         albums.add(album);
-        myLibrary.getAlbums().add(album);
+        myLibrary.addAlbum(album);
         Notification notification = new Notification("New Album from " + this.getUsername() + ".",
             "New Album");
         for (User subscriber : getSubscribers()) {
             subscriber.updateNotifications(notification);
         }
         // print the output
-        addAlbumOutput.put("message", command.getUsername() + " has added new album successfully.");
-        outputs.add(addAlbumOutput);
+        outputs.add(new MessageOutput("addAlbum", command.getUsername(), command.getTimestamp(),
+            command.getUsername() + " has added new album successfully."));
 
 
     }
@@ -112,26 +116,18 @@ public final class Artist extends User {
      * Prints the albums of the artist.
      */
     @Override
-    public void showAlbumsReal(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode showAlbumsOutput = mapper.createObjectNode();
-        showAlbumsOutput.put("command", "showAlbums");
-        showAlbumsOutput.put("user", command.getUsername());
-        showAlbumsOutput.put("timestamp", command.getTimestamp());
-        ArrayNode albumsArray = mapper.createArrayNode();
+    public void showAlbumsReal(final Command command, final User user, final OutputSink outputs) {
+        ArrayList<AlbumDetails> albumsDetails = new ArrayList<>();
         for (Album album : albums) {
-            ObjectNode albumObject = mapper.createObjectNode();
-            albumObject.put("name", album.getName());
             // add the song names in an array
-            ArrayNode songsArray = mapper.createArrayNode();
+            ArrayList<String> songNames = new ArrayList<>();
             for (Song song : album.getSongs()) {
-                songsArray.add(song.getName());
+                songNames.add(song.getName());
             }
-            albumObject.set("songs", songsArray);
-            albumsArray.add(albumObject);
+            albumsDetails.add(new AlbumDetails(album.getName(), songNames));
         }
-        showAlbumsOutput.set("result", albumsArray);
-        outputs.add(showAlbumsOutput);
+        outputs.add(new ResultOutput("showAlbums", command.getUsername(), command.getTimestamp(),
+            albumsDetails));
     }
 
     /**
@@ -139,24 +135,19 @@ public final class Artist extends User {
      * added.
      */
     @Override
-    public void addMerchReal(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addMerchOutput = mapper.createObjectNode();
-        addMerchOutput.put("command", "addMerch");
-        addMerchOutput.put("user", command.getUsername());
-        addMerchOutput.put("timestamp", command.getTimestamp());
+    public void addMerchReal(final Command command, final OutputSink outputs) {
         for (Merch merch : merches) {
             if (merch.getName().equals(command.getName())) {
                 //merch already exists
-                addMerchOutput.put("message",
-                    command.getUsername() + " has merchandise with the same name.");
-                outputs.add(addMerchOutput);
+                outputs.add(new MessageOutput("addMerch", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " has merchandise with the same name."));
                 return;
             }
         }
         if (command.getPrice() < 0) {
-            addMerchOutput.put("message", "Price for merchandise can not be negative.");
-            outputs.add(addMerchOutput);
+            outputs.add(new MessageOutput("addMerch", command.getUsername(), command.getTimestamp(),
+                "Price for merchandise can not be negative."));
             return;
         }
         Merch merch = new Merch(command.getName(), command.getDescription(), command.getPrice());
@@ -167,9 +158,8 @@ public final class Artist extends User {
         for (User subscriber : getSubscribers()) {
             subscriber.updateNotifications(notification);
         }
-        addMerchOutput.put("message",
-            command.getUsername() + " has added new merchandise successfully.");
-        outputs.add(addMerchOutput);
+        outputs.add(new MessageOutput("addMerch", command.getUsername(), command.getTimestamp(),
+            command.getUsername() + " has added new merchandise successfully."));
     }
 
     /**
@@ -177,33 +167,26 @@ public final class Artist extends User {
      * not valid, the event will not be added.
      */
     @Override
-    public void addEventReal(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addEventOutput = mapper.createObjectNode();
-        addEventOutput.put("command", "addEvent");
-        addEventOutput.put("user", command.getUsername());
-        addEventOutput.put("timestamp", command.getTimestamp());
+    public void addEventReal(final Command command, final OutputSink outputs) {
         for (Event event : events) {
             if (event.getName().equals(command.getName())) {
                 //event already exists
-                addEventOutput.put("message", "Event already exists.");
-                outputs.add(addEventOutput);
+                outputs.add(new MessageOutput("addEvent", command.getUsername(),
+                    command.getTimestamp(), "Event already exists."));
                 return;
             }
         }
         //check if date is correct
         String[] date = command.getDate().split("-");
         if (date[1] == "02" && Integer.parseInt(date[2]) > MAX_DAYS_FEBRUARY) {
-            addEventOutput.put("message",
-                "Event for " + command.getUsername() + " does not have a valid date.");
-            outputs.add(addEventOutput);
+            outputs.add(new MessageOutput("addEvent", command.getUsername(), command.getTimestamp(),
+                "Event for " + command.getUsername() + " does not have a valid date."));
             return;
         }
         if (Integer.parseInt(date[0]) > MAX_DAYS_MONTH || Integer.parseInt(date[1]) > MAX_MONTH
             || Integer.parseInt(date[2]) < MIN_YEAR || Integer.parseInt(date[2]) > MAX_YEAR) {
-            addEventOutput.put("message",
-                "Event for " + command.getUsername() + " does not have a valid date.");
-            outputs.add(addEventOutput);
+            outputs.add(new MessageOutput("addEvent", command.getUsername(), command.getTimestamp(),
+                "Event for " + command.getUsername() + " does not have a valid date."));
             return;
         }
         Event event = new Event(command.getName(), command.getDate(), command.getDescription());
@@ -213,8 +196,8 @@ public final class Artist extends User {
         for (User subscriber : getSubscribers()) {
             subscriber.updateNotifications(notification);
         }
-        addEventOutput.put("message", command.getUsername() + " has added new event successfully.");
-        outputs.add(addEventOutput);
+        outputs.add(new MessageOutput("addEvent", command.getUsername(), command.getTimestamp(),
+            command.getUsername() + " has added new event successfully."));
     }
 
     /**
@@ -223,17 +206,8 @@ public final class Artist extends User {
      */
     @Override
     public void removeAlbumReal(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode removeAlbumOutput = mapper.createObjectNode();
-        removeAlbumOutput.put("command", "removeAlbum");
-        removeAlbumOutput.put("user", command.getUsername());
-        removeAlbumOutput.put("timestamp", command.getTimestamp());
-        for (User currUser : myLibrary.getUsers()) {
-            if (currUser.getPlayer() != null) {
-                currUser.getPlayer().update(command.getTimestamp(), currUser, myLibrary);
-            }
-        }
+        final OutputSink outputs) {
+        myLibrary.updatePlayers(command.getTimestamp());
         Album album = null;
         for (Album album1 : albums) {
             if (album1.getName().equals(command.getName())) {
@@ -243,34 +217,21 @@ public final class Artist extends User {
             }
         }
         if (album == null) {
-            removeAlbumOutput.put("message",
-                command.getUsername() + " doesn't have an album with the given name.");
-            outputs.add(removeAlbumOutput);
+            outputs.add(new MessageOutput("removeAlbum", command.getUsername(),
+                command.getTimestamp(),
+                command.getUsername() + " doesn't have an album with the given name."));
             return;
         }
         boolean removable = isRemovable(myLibrary, album);
         if (!removable) {
-            removeAlbumOutput.put("message", command.getUsername() + " can't delete this album.");
-            outputs.add(removeAlbumOutput);
+            outputs.add(new MessageOutput("removeAlbum", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " can't delete this album."));
             return;
         }
         albums.remove(album);
-        myLibrary.getAlbums().remove(album);
-        for (Song song : album.getSongs()) {
-            for (Playlist playlist : myLibrary.getPlaylists()) {
-                if (playlist.getSongs().contains(song)) {
-                    playlist.getSongs().remove(song);
-                }
-            }
-            for (User currUser : myLibrary.getUsers()) {
-                if (currUser.getLikedSongs().contains(song)) {
-                    currUser.getLikedSongs().remove(song);
-                }
-            }
-            myLibrary.getSongs().remove(song);
-        }
-        removeAlbumOutput.put("message", this.getUsername() + " deleted the album successfully.");
-        outputs.add(removeAlbumOutput);
+        myLibrary.removeAlbum(album);
+        outputs.add(new MessageOutput("removeAlbum", command.getUsername(), command.getTimestamp(),
+            this.getUsername() + " deleted the album successfully."));
     }
 
     /**
@@ -279,38 +240,21 @@ public final class Artist extends User {
      * @return true if the album is removable, false otherwise
      */
     private static boolean isRemovable(final Library myLibrary, final Album album) {
-        boolean removable = true;
+        LoadedContent loaded = myLibrary.getLoadedContent();
+        // only the players that have one of its songs loaded (on its own, in the album or in a
+        // playlist) keep an album
+        if (album.getSongs().isEmpty()) {
+            return true;
+        }
+        if (loaded.isLoaded(album)) {
+            return false;
+        }
         for (Song song : album.getSongs()) {
-            for (User currUser : myLibrary.getUsers()) {
-                if (currUser.getPlayer() != null) {
-                    if (currUser.getPlayer().getQueue() != null) {
-                        switch (currUser.getPlayer().getQueue().getType()) {
-                            case SONG -> {
-                                if (currUser.getPlayer().getQueue().equals(song)) {
-                                    removable = false;
-                                }
-                            }
-                            case ALBUM -> {
-                                if (currUser.getPlayer().getQueue().equals(album)) {
-                                    removable = false;
-                                }
-                            }
-                            case PLAYLIST -> {
-                                if (((Playlist) currUser.getPlayer().getQueue()).getSongs()
-                                    .contains(song)) {
-                                    removable = false;
-                                }
-                            }
-                            default -> {
-                                continue;
-                            }
-                        }
-
-                    }
-                }
+            if (loaded.isLoaded(song) || loaded.isInLoadedPlaylist(song)) {
+                return false;
             }
         }
-        return removable;
+        return true;
     }
 
     /**
@@ -319,12 +263,7 @@ public final class Artist extends User {
      */
     @Override
     public void removeEventReal(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode removeEventOutput = mapper.createObjectNode();
-        removeEventOutput.put("command", "removeEvent");
-        removeEventOutput.put("user", command.getUsername());
-        removeEventOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs) {
         Event event = null;
         for (Event event1 : events) {
             if (event1.getName().equals(command.getName())) {
@@ -334,121 +273,70 @@ public final class Artist extends User {
             }
         }
         if (event == null) {
-            removeEventOutput.put("message", "Event does not exist.");
-            outputs.add(removeEventOutput);
+            outputs.add(new MessageOutput("removeEvent", command.getUsername(),
+                command.getTimestamp(), "Event does not exist."));
             return;
         }
         events.remove(event);
-        removeEventOutput.put("message",
-            command.getUsername() + " deleted the event successfully.");
-        outputs.add(removeEventOutput);
+        outputs.add(new MessageOutput("removeEvent", command.getUsername(), command.getTimestamp(),
+            command.getUsername() + " deleted the event successfully."));
     }
 
     /**
      * Add a listener to the artist's listeners. If the listener already exists, the number of
      * listens will be incremented.
      */
-    public void addListener(final String name) {
-        for (Listens listener : listeners) {
-            if (listener.getName().equals(name)) {
-                listener.addListen();
-                return;
-            }
-        }
-        Listens listener = new Listens(name);
-        listeners.add(listener);
+    public void addListener(final User user) {
+        listeners.add(user.getId(), user.getUsername());
     }
 
     /**
      * Wrapped for artist. (top listeners, top songs, top albums)
      */
     @Override
-    public void wrapped(final Command command, final User user, final ArrayNode outputs,
+    public void wrapped(final Command command, final User user, final OutputSink outputs,
         final Library library) {
         //first update all users players
-        for (User currUser : library.getUsers()) {
-            if (currUser.getPlayer() != null) {
-                currUser.getPlayer().update(command.getTimestamp(), currUser, library);
-            }
-        }
-
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode wrappedOutput = mapper.createObjectNode();
-        wrappedOutput.put("command", command.getCommand());
-        wrappedOutput.put("user", command.getUsername());
-        wrappedOutput.put("timestamp", command.getTimestamp());
+        library.updatePlayers(command.getTimestamp());
 
         if (listeners.isEmpty()) {
-            wrappedOutput.put("message",
-                "No data to show for artist " + command.getUsername() + ".");
-            outputs.add(wrappedOutput);
+            outputs.add(new MessageOutput(command.getCommand(), command.getUsername(),
+                command.getTimestamp(),
+                "No data to show for artist " + command.getUsername() + "."));
             return;
         }
 
-        ObjectNode result = mapper.createObjectNode();
-        ObjectNode albumsStuff = mapper.createObjectNode();
-        ObjectNode songs = mapper.createObjectNode();
-        ArrayNode fans = mapper.createArrayNode();
-
-        getSongListens().sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        getAlbumListens().sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        listeners.sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
+        LinkedHashMap<String, Integer> albumsStuff = new LinkedHashMap<>();
+        LinkedHashMap<String, Integer> songs = new LinkedHashMap<>();
+        ArrayList<String> fans = new ArrayList<>();
 
-        for (int i = 0; i < MAX_ITEMS; i++) {
-            if (i < getSongListens().size()) {
-                songs.put(getSongListens().get(i).getName(), getSongListens().get(i).getListens());
-            }
+        for (Listens listens : getSongListens().top(MAX_ITEMS)) {
+            songs.put(listens.getName(), listens.getListens());
         }
-        for (int i = 0; i < MAX_ITEMS; i++) {
-            if (i < getAlbumListens().size()) {
-                albumsStuff.put(getAlbumListens().get(i).getName(),
-                    getAlbumListens().get(i).getListens());
-            }
+        for (Listens listens : getAlbumListens().top(MAX_ITEMS)) {
+            albumsStuff.put(listens.getName(), listens.getListens());
         }
 
-        for (int i = 0; i < MAX_ITEMS; i++) {
-            if (i < listeners.size()) {
-                fans.add(listeners.get(i).getName());
-            }
+        for (Listens listener : listeners.top(MAX_ITEMS)) {
+            fans.add(listener.getName());
         }
 
-        result.putPOJO("topAlbums", albumsStuff);
-        result.putPOJO("topSongs", songs);
-        result.putPOJO("topFans", fans);
-        result.put("listeners", listeners.size());
-        wrappedOutput.put("result", result);
-        outputs.add(wrappedOutput);
+        outputs.add(new ResultOutput(command.getCommand(), command.getUsername(),
+            command.getTimestamp(),
+            new ArtistWrapped(albumsStuff, songs, fans, listeners.size())));
     }
 
     /**
      * Used for calculating profit for each song.
      */
-    public void addSongProfits(final String name, final double value) {
-        for (Revenues songProfit : songProfits) {
-            if (songProfit.getSongName().equals(name)) {
-                songProfit.addRevenue(value);
-                return;
-            }
+    public void addSongProfits(final int songId, final String name, final double value) {
+        Revenues songProfit = songProfitsById.get(songId);
+        if (songProfit != null) {
+            songProfit.addRevenue(value);
+            return;
         }
-        Revenues songProfit = new Revenues(name, value);
+        songProfit = new Revenues(name, value);
         songProfits.add(songProfit);
+        songProfitsById.put(songId, songProfit);
     }
 }
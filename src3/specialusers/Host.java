@@ -5,18 +5,21 @@ import artistentities.Listens;
 import audio.files.Episode;
 import audio.lists.Library;
 import audio.lists.Podcast;
-import audio.lists.PodcastProgress;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import commands.Command;
 import enums.UserType;
 import fileio.input.EpisodeInput;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 import user.User;
+import output.HostWrapped;
+import output.MessageOutput;
+import output.OutputSink;
+import output.PodcastDetails;
+import output.ResultOutput;
 
 @Getter
 @Setter
@@ -24,7 +27,8 @@ public final class Host extends User {
 
     private ArrayList<Podcast> podcasts;
     private ArrayList<Announcement> announcements;
-    private ArrayList<String> listeners = new ArrayList<>();
+    // ids of the users that listened to the host
+    private BitSet listeners = new BitSet();
 
     public Host(final String username, final int age, final String city) {
         super(username, age, city, UserType.HOST);
@@ -35,21 +39,16 @@ public final class Host extends User {
 
     @Override
     public void addPodcastReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         // create podcast
         // check if podcast already exists
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addPodcastOutput = mapper.createObjectNode();
-        addPodcastOutput.put("command", "addPodcast");
-        addPodcastOutput.put("user", command.getUsername());
-        addPodcastOutput.put("timestamp", command.getTimestamp());
 
         for (Podcast podcast : podcasts) {
             if (podcast.getName().equals(command.getName())) {
                 // podcast already exists
-                addPodcastOutput.put("message",
-                    command.getUsername() + " has another podcast with the same name.");
-                outputs.add(addPodcastOutput);
+                outputs.add(new MessageOutput("addPodcast", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " has another podcast with the same name."));
                 return;
             }
         }
@@ -62,115 +61,82 @@ public final class Host extends User {
         }
         if (episodeNames.size() != Set.copyOf(episodeNames).size()) {
             // duplicate episode
-            addPodcastOutput.put("message", "Duplicate episode.");
-            outputs.add(addPodcastOutput);
+            outputs.add(new MessageOutput("addPodcast", command.getUsername(),
+                command.getTimestamp(), "Duplicate episode."));
             return;
         }
         // add podcast to library
         Podcast podcast = new Podcast(command.getName(), command.getEpisodes(),
             command.getUsername());
-        myLibrary.getPodcasts().add(podcast);
-        // add podcast to host
+        myLibrary.addPodcast(podcast);
+        // add podcast to host, the users get their progress in it when they load it
         podcasts.add(podcast);
-        // add PodcastProgress to all users
-        for (User user1 : myLibrary.getUsers()) {
-            user1.getPodcastProgress().add(new PodcastProgress(podcast));
-        }
-        addPodcastOutput.put("message",
-            command.getUsername() + " has added new podcast successfully.");
-        outputs.add(addPodcastOutput);
+        outputs.add(new MessageOutput("addPodcast", command.getUsername(), command.getTimestamp(),
+            command.getUsername() + " has added new podcast successfully."));
     }
 
     @Override
     public void addAnnouncementReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode addAnnouncementOutput = mapper.createObjectNode();
-        addAnnouncementOutput.put("command", "addAnnouncement");
-        addAnnouncementOutput.put("user", command.getUsername());
-        addAnnouncementOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs) {
         // check if event exists
         for (Announcement announcement : announcements) {
             if (announcement.getName().equals(command.getName())) {
                 // event already exists
-                addAnnouncementOutput.put("message", "Announcement already exists.");
-                outputs.add(addAnnouncementOutput);
+                outputs.add(new MessageOutput("addAnnouncement", command.getUsername(),
+                    command.getTimestamp(), "Announcement already exists."));
                 return;
             }
         }
         // create event
         Announcement announcement = new Announcement(command.getName(), command.getDescription());
         announcements.add(announcement);
-        addAnnouncementOutput.put("message",
-            command.getUsername() + " has successfully added new announcement.");
-        outputs.add(addAnnouncementOutput);
+        outputs.add(new MessageOutput("addAnnouncement", command.getUsername(),
+            command.getTimestamp(),
+            command.getUsername() + " has successfully added new announcement."));
     }
 
     @Override
     public void removeAnnouncementReal(final Command command, final Library myLibrary,
         final User user,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode removeAnnouncementOutput = mapper.createObjectNode();
-        removeAnnouncementOutput.put("command", "removeAnnouncement");
-        removeAnnouncementOutput.put("user", command.getUsername());
-        removeAnnouncementOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs) {
         // check if event exists
         for (Announcement announcement : announcements) {
             if (announcement.getName().equals(command.getName())) {
                 // event exists
                 announcements.remove(announcement);
-                removeAnnouncementOutput.put("message",
-                    command.getUsername() + " has successfully deleted the announcement.");
-                outputs.add(removeAnnouncementOutput);
+                outputs.add(new MessageOutput("removeAnnouncement", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " has successfully deleted the announcement."));
                 return;
             }
         }
         // event doesn't exist
-        removeAnnouncementOutput.put("message",
-            command.getUsername() + " has no announcement with the given name.");
-        outputs.add(removeAnnouncementOutput);
+        outputs.add(new MessageOutput("removeAnnouncement", command.getUsername(),
+            command.getTimestamp(),
+            command.getUsername() + " has no announcement with the given name."));
     }
 
     @Override
-    public void showPodcastsReal(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode showPodcastsOutput = mapper.createObjectNode();
-        showPodcastsOutput.put("command", "showPodcasts");
-        showPodcastsOutput.put("user", command.getUsername());
-        showPodcastsOutput.put("timestamp", command.getTimestamp());
+    public void showPodcastsReal(final Command command, final User user, final OutputSink outputs) {
         // make result array
-        ArrayNode result = mapper.createArrayNode();
+        ArrayList<PodcastDetails> result = new ArrayList<>();
         for (Podcast podcast : podcasts) {
             //print podcast and its episodes
-            ArrayNode episodes = mapper.createArrayNode();
+            ArrayList<String> episodes = new ArrayList<>();
             for (Episode episode : podcast.getEpisodes()) {
                 episodes.add(episode.getName());
             }
-            ObjectNode podcastNode = mapper.createObjectNode();
-            podcastNode.put("name", podcast.getName());
-            podcastNode.putPOJO("episodes", episodes);
-            result.add(podcastNode);
+            result.add(new PodcastDetails(podcast.getName(), episodes));
         }
-        // podcast doesn't exist
-        showPodcastsOutput.putPOJO("result", result);
-        outputs.add(showPodcastsOutput);
+        outputs.add(new ResultOutput("showPodcasts", command.getUsername(),
+            command.getTimestamp(), result));
     }
 
     @Override
     public void removePodcastReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode removePodcastOutput = mapper.createObjectNode();
-        removePodcastOutput.put("command", "removePodcast");
-        removePodcastOutput.put("user", command.getUsername());
-        removePodcastOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs) {
 
-        for (User currUser : myLibrary.getUsers()) {
-            if (currUser.getPlayer() != null) {
-                currUser.getPlayer().update(command.getTimestamp(), currUser, myLibrary);
-            }
-        }
+        myLibrary.updatePlayers(command.getTimestamp());
         // check if podcast exists
         Podcast podcast = null;
         for (Podcast currPodcast : podcasts) {
@@ -182,85 +148,42 @@ public final class Host extends User {
         }
         if (podcast == null) {
             // podcast doesn't exist
-            removePodcastOutput.put("message",
-                command.getUsername() + " doesn't have a podcast with the given name.");
-            outputs.add(removePodcastOutput);
+            outputs.add(new MessageOutput("removePodcast", command.getUsername(),
+                command.getTimestamp(),
+                command.getUsername() + " doesn't have a podcast with the given name."));
             return;
         }
-        // check if podcast is loaded anywhere
-        for (User currUser : myLibrary.getUsers()) {
-            if (currUser.getPlayer() != null) {
-                if (currUser.getPlayer().getQueue() != null) {
-                    switch (currUser.getPlayer().getQueue().getType()) {
-                        case PODCAST -> {
-                            if (((Podcast) currUser.getPlayer().getQueue()).getName()
-                                .equals(command.getName())) {
-                                // podcast is loaded
-                                removePodcastOutput.put("message",
-                                    command.getUsername() + " can't delete this podcast.");
-                                outputs.add(removePodcastOutput);
-                                return;
-                            }
-                        }
-                        default -> {
-                            continue;
-                        }
-                    }
-                }
-            }
+        // check if podcast (or one with the same name) is loaded anywhere
+        if (myLibrary.getLoadedContent().isPodcastLoaded(command.getName())) {
+            outputs.add(new MessageOutput("removePodcast", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " can't delete this podcast."));
+            return;
         }
         // if we got here, podcast is not loaded anywhere
-        // remove podcast from library
-        myLibrary.getPodcasts().remove(podcast);
+        // remove podcast from library (and from the users that listened to it)
+        myLibrary.removePodcast(podcast);
         // remove podcast from host
         podcasts.remove(podcast);
-        // remove podcast from all users
-        for (User currUser : myLibrary.getUsers()) {
-            for (PodcastProgress podcastProgress : currUser.getPodcastProgress()) {
-                if (podcastProgress.getPodcast().getName().equals(command.getName())) {
-                    currUser.getPodcastProgress().remove(podcastProgress);
-                    break;
-                }
-            }
-        }
-        removePodcastOutput.put("message",
-            command.getUsername() + " deleted the podcast successfully.");
-        outputs.add(removePodcastOutput);
+        outputs.add(new MessageOutput("removePodcast", command.getUsername(),
+            command.getTimestamp(), command.getUsername() + " deleted the podcast successfully."));
     }
 
     @Override
-    public void wrapped(final Command command, final User user, final ArrayNode outputs,
+    public void wrapped(final Command command, final User user, final OutputSink outputs,
         final Library library) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode wrappedOutput = mapper.createObjectNode();
-        wrappedOutput.put("command", "wrapped");
-        wrappedOutput.put("user", command.getUsername());
-        wrappedOutput.put("timestamp", command.getTimestamp());
-        // make result array
-        ObjectNode result = mapper.createObjectNode();
-        getEpisodeListens().sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        ObjectNode episodes = mapper.createObjectNode();
-        for (Listens episodeListen : getEpisodeListens()) {
+        LinkedHashMap<String, Integer> episodes = new LinkedHashMap<>();
+        for (Listens episodeListen : getEpisodeListens().sorted()) {
             episodes.put(episodeListen.getName(), episodeListen.getListens());
         }
-        result.putPOJO("topEpisodes", episodes);
-        result.put("listeners", listeners.size());
-        wrappedOutput.putPOJO("result", result);
-        outputs.add(wrappedOutput);
+        outputs.add(new ResultOutput("wrapped", command.getUsername(), command.getTimestamp(),
+            new HostWrapped(episodes, listeners.cardinality())));
     }
 
     /**
-     * Add a listener to the host's listeners list. If the listener is already in the list, add a
+     * Add a listener to the host's listeners. A user is counted once, however many times they
      * listen.
      */
-    public void addListener(final String username) {
-        if (!listeners.contains(username)) {
-            listeners.add(username);
-        }
+    public void addListener(final User user) {
+        listeners.set(user.getId());
     }
 }
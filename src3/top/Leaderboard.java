@@ -0,0 +1,110 @@
+package top;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Entities ordered by a count (most first), then by an optional tie-breaker and by the order they
+ * were added in. The entities tell the leaderboard when their count changes, so the first ones are
+ * always known and a top doesn't sort anything.
+ *
+ * @param <T> is the type of the ranked entities
+ */
+public final class Leaderboard<T> {
+
+    private final ToIntFunction<T> counter;
+    private final TreeSet<Entry<T>> ranking;
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private long added;
+
+    /**
+     * @param counter gives the count of an entity (for example its number of likes)
+     */
+    public Leaderboard(final ToIntFunction<T> counter) {
+        this(counter, (item1, item2) -> 0);
+    }
+
+    /**
+     * @param counter    gives the count of an entity (for example its number of likes)
+     * @param tieBreaker orders the entities with the same count
+     */
+    public Leaderboard(final ToIntFunction<T> counter, final Comparator<T> tieBreaker) {
+        this.counter = counter;
+        ranking = new TreeSet<>((entry1, entry2) -> {
+            if (entry1.count != entry2.count) {
+                return Integer.compare(entry2.count, entry1.count);
+            }
+            int order = tieBreaker.compare(entry1.item, entry2.item);
+            if (order != 0) {
+                return order;
+            }
+            return Long.compare(entry1.ordinal, entry2.ordinal);
+        });
+    }
+
+    /**
+     * Rank an entity after all the other ones with the same count.
+     */
+    public void add(final T item) {
+        Entry<T> entry = new Entry<>(item, counter.applyAsInt(item), added++);
+        entries.put(item, entry);
+        ranking.add(entry);
+    }
+
+    /**
+     * Stop ranking an entity.
+     */
+    public void remove(final T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry != null) {
+            ranking.remove(entry);
+        }
+    }
+
+    /**
+     * Move an entity to the place of its new count. Entities that are not ranked are ignored.
+     */
+    public void update(final T item) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            return;
+        }
+        int count = counter.applyAsInt(item);
+        if (count != entry.count) {
+            ranking.remove(entry);
+            entry.count = count;
+            ranking.add(entry);
+        }
+    }
+
+    /**
+     * @return the first (at most) size entities
+     */
+    public List<T> top(final int size) {
+        List<T> first = new ArrayList<>(size);
+        for (Entry<T> entry : ranking) {
+            if (first.size() == size) {
+                break;
+            }
+            first.add(entry.item);
+        }
+        return first;
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long ordinal;
+        private int count;
+
+        Entry(final T item, final int count, final long ordinal) {
+            this.item = item;
+            this.count = count;
+            this.ordinal = ordinal;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package user;
 
+import audio.files.Song;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -8,11 +9,15 @@ import lombok.Setter;
 public final class SongHistory {
     private String name;
     private String artist;
+    private int songId;
+    private int artistId;
     private int listens;
 
-    public SongHistory(final String name, final String artist) {
-        this.name = name;
-        this.artist = artist;
+    public SongHistory(final Song song) {
+        this.name = song.getName();
+        this.artist = song.getArtist();
+        this.songId = song.getId();
+        this.artistId = song.getArtistId();
         this.listens = 1;
     }
 
@@ -1,5 +1,6 @@
 package user;
 
+import artistentities.ListenCounter;
 import artistentities.Listens;
 import artistentities.Merch;
 import audio.files.Song;
@@ -7,11 +8,10 @@ import audio.item.AudioItem;
 import audio.lists.Library;
 import audio.lists.Podcast;
 import enums.AudioEnum;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import commands.Command;
 import enums.Page;
+import enums.SearchScope;
 import enums.UserType;
-import fileio.input.UserInput;
 import java.util.Random;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,12 +19,19 @@ import searchbar.SearchBar;
 import player.Player;
 import audio.lists.PodcastProgress;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import audio.lists.Playlist;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import enums.Status;
 import specialusers.Artist;
 import specialusers.Host;
+import output.MessageOutput;
+import output.NotificationsOutput;
+import output.OutputSink;
+import output.PlaylistDetails;
+import output.ResultOutput;
+import output.UserWrapped;
 
 @Getter
 @Setter
@@ -35,11 +42,14 @@ public class User implements Observer {
     private static final int TOP_GENRE_SIZE = 3;
     private final Library library;
     private final String username;
+    // dense id of the username, given by the library
+    private int id;
     private final int age;
     private final String city;
     private final SearchBar searchBar;
     private final Player player;
-    private final ArrayList<PodcastProgress> podcastProgress;
+    // progress in the podcasts the user loaded, made the first time each one is loaded
+    private final Map<Podcast, PodcastProgress> podcastProgress;
     private final ArrayList<Playlist> playlists;
     private final ArrayList<Song> likedSongs;
     private final ArrayList<Playlist> followedPlaylists;
@@ -47,11 +57,11 @@ public class User implements Observer {
     private UserType type;
     private Page currentPage;
     private String pageOwner = "";
-    private ArrayList<Listens> artistListens = new ArrayList<>();
-    private ArrayList<Listens> genreListens = new ArrayList<>();
-    private ArrayList<Listens> songListens = new ArrayList<>();
-    private ArrayList<Listens> albumListens = new ArrayList<>();
-    private ArrayList<Listens> episodeListens = new ArrayList<>();
+    private ListenCounter artistListens = new ListenCounter();
+    private ListenCounter genreListens = new ListenCounter();
+    private ListenCounter songListens = new ListenCounter();
+    private ListenCounter albumListens = new ListenCounter();
+    private ListenCounter episodeListens = new ListenCounter();
     private boolean isPremium = false;
     private ArrayList<User> subscribers = new ArrayList<>();
     private ArrayList<Notification> notifications = new ArrayList<>();
@@ -62,38 +72,12 @@ public class User implements Observer {
     private ArrayList<PageDetails> nextPages = new ArrayList<>();
     private String lastRecommendation = null;
 
-    public User(final UserInput user, final Library myLibrary) {
-        library = myLibrary;
-        username = user.getUsername();
-        age = user.getAge();
-        city = user.getCity();
-        podcastProgress = new ArrayList<>();
-        for (Podcast podcast : myLibrary.getPodcasts()) {
-            podcastProgress.add(new PodcastProgress(podcast));
-        }
-        searchBar = new SearchBar();
-        player = new Player(myLibrary);
-        playlists = new ArrayList<>();
-        likedSongs = new ArrayList<>();
-        followedPlaylists = new ArrayList<>();
-        type = UserType.NORMAL;
-        currentPage = Page.HOME;
-        artistListens = new ArrayList<>();
-        genreListens = new ArrayList<>();
-        songListens = new ArrayList<>();
-        albumListens = new ArrayList<>();
-        episodeListens = new ArrayList<>();
-    }
-
     public User(final String username, final int age, final String city, final Library myLibrary) {
         library = myLibrary;
         this.username = username;
         this.age = age;
         this.city = city;
-        podcastProgress = new ArrayList<>();
-        for (Podcast podcast : myLibrary.getPodcasts()) {
-            podcastProgress.add(new PodcastProgress(podcast));
-        }
+        podcastProgress = new IdentityHashMap<>();
         searchBar = new SearchBar();
         player = new Player(myLibrary);
         playlists = new ArrayList<>();
@@ -101,11 +85,11 @@ public class User implements Observer {
         followedPlaylists = new ArrayList<>();
         type = UserType.NORMAL;
         currentPage = Page.HOME;
-        artistListens = new ArrayList<>();
-        genreListens = new ArrayList<>();
-        songListens = new ArrayList<>();
-        albumListens = new ArrayList<>();
-        episodeListens = new ArrayList<>();
+        artistListens = new ListenCounter();
+        genreListens = new ListenCounter();
+        songListens = new ListenCounter();
+        albumListens = new ListenCounter();
+        episodeListens = new ListenCounter();
     }
 
     public User(final String username, final Integer age, final String city,
@@ -122,9 +106,9 @@ public class User implements Observer {
         likedSongs = null;
         followedPlaylists = null;
         currentPage = null;
-        artistListens = new ArrayList<>();
-        songListens = new ArrayList<>();
-        albumListens = new ArrayList<>();
+        artistListens = new ListenCounter();
+        songListens = new ListenCounter();
+        albumListens = new ListenCounter();
 
     }
 
@@ -135,69 +119,53 @@ public class User implements Observer {
      * @param myLibrary we also have to add the playlist in the library's "list of playlists"
      */
     public void createPlaylist(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         for (Playlist playlist : myLibrary.getPlaylists()) {
             if (playlist.getName().equals(command.getPlaylistName())) {
-                ObjectMapper mapper = new ObjectMapper();
-                ObjectNode createPlaylistOutput = mapper.createObjectNode();
-                createPlaylistOutput.put("command", "createPlaylist");
-                createPlaylistOutput.put("user", command.getUsername());
-                createPlaylistOutput.put("timestamp", command.getTimestamp());
-                createPlaylistOutput.put("message",
-                    "A playlist with the same name already exists.");
-                outputs.add(createPlaylistOutput);
+                outputs.add(new MessageOutput("createPlaylist", command.getUsername(),
+                    command.getTimestamp(), "A playlist with the same name already exists."));
                 return;
             }
         }
         Playlist newPlaylist = new Playlist(command.getPlaylistName(), user,
             command.getTimestamp());
-        myLibrary.getPlaylists().add(newPlaylist);
+        myLibrary.addPlaylist(newPlaylist);
         user.getPlaylists().add(newPlaylist);
 
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode createPlaylistOutput = mapper.createObjectNode();
-        createPlaylistOutput.put("command", "createPlaylist");
-        createPlaylistOutput.put("user", command.getUsername());
-        createPlaylistOutput.put("timestamp", command.getTimestamp());
-        createPlaylistOutput.put("message", "Playlist created successfully.");
-        outputs.add(createPlaylistOutput);
+        outputs.add(new MessageOutput("createPlaylist", command.getUsername(),
+            command.getTimestamp(), "Playlist created successfully."));
 
     }
 
     /**
      * Like the song the user is currently listening to.
      */
-    public void like(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode likeOutput = mapper.createObjectNode();
-        likeOutput.put("command", "like");
-        likeOutput.put("user", command.getUsername());
-        likeOutput.put("timestamp", command.getTimestamp());
+    public void like(final Command command, final User user, final OutputSink outputs) {
         if (status == Status.OFFLINE) {
-            likeOutput.put("message", username + " is offline.");
-            outputs.add(likeOutput);
+            outputs.add(new MessageOutput("like", command.getUsername(), command.getTimestamp(),
+                username + " is offline."));
             return;
         }
         player.update(command.getTimestamp(), user, library);
         AudioItem queue = player.getQueue();
         if (queue == null) {
-            likeOutput.put("message", "Please load a source before liking or unliking.");
-            outputs.add(likeOutput);
+            outputs.add(new MessageOutput("like", command.getUsername(), command.getTimestamp(),
+                "Please load a source before liking or unliking."));
             return;
         }
         if (queue.getType() == AudioEnum.PODCAST) {
-            likeOutput.put("message", "The loaded source is not a song.");
-            outputs.add(likeOutput);
+            outputs.add(new MessageOutput("like", command.getUsername(), command.getTimestamp(),
+                "The loaded source is not a song."));
         } else if (((Song) player.getCurrentFile()).getLikes().contains(user)) {
             ((Song) player.getCurrentFile()).removeLike(user);
             likedSongs.remove(((Song) player.getCurrentFile()));
-            likeOutput.put("message", "Unlike registered successfully.");
-            outputs.add(likeOutput);
+            outputs.add(new MessageOutput("like", command.getUsername(), command.getTimestamp(),
+                "Unlike registered successfully."));
         } else {
             ((Song) player.getCurrentFile()).addLike(user);
             likedSongs.add(((Song) player.getCurrentFile()));
-            likeOutput.put("message", "Like registered successfully.");
-            outputs.add(likeOutput);
+            outputs.add(new MessageOutput("like", command.getUsername(), command.getTimestamp(),
+                "Like registered successfully."));
         }
     }
 
@@ -208,36 +176,29 @@ public class User implements Observer {
      * @param user    whose user's playlists we want
      * @param outputs for appending the output to the other outputs
      */
-    public void showPlaylists(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode showPlaylistsOutput = mapper.createObjectNode();
-        showPlaylistsOutput.put("command", "showPlaylists");
-        showPlaylistsOutput.put("user", command.getUsername());
-        showPlaylistsOutput.put("timestamp", command.getTimestamp());
+    public void showPlaylists(final Command command, final User user, final OutputSink outputs) {
         if (user.getPlaylists().isEmpty()) {
-            showPlaylistsOutput.put("message", "No playlists found.");
-            outputs.add(showPlaylistsOutput);
+            outputs.add(new MessageOutput("showPlaylists", command.getUsername(),
+                command.getTimestamp(), "No playlists found."));
             return;
         }
-        ArrayNode playlists = mapper.createArrayNode();
+        ArrayList<PlaylistDetails> playlists = new ArrayList<>();
         for (Playlist playlist : user.getPlaylists()) {
-            ObjectNode playlistNode = mapper.createObjectNode();
-            playlistNode.put("name", playlist.getName());
-            ArrayNode songs = mapper.createArrayNode();
+            ArrayList<String> songs = new ArrayList<>();
             for (Song song : playlist.getSongs()) {
                 songs.add(song.getName());
             }
-            playlistNode.putPOJO("songs", songs);
+            String visibility;
             if (playlist.getIsPrivate() == 1) {
-                playlistNode.put("visibility", "private");
+                visibility = "private";
             } else {
-                playlistNode.put("visibility", "public");
+                visibility = "public";
             }
-            playlistNode.put("followers", playlist.getFollowers().size());
-            playlists.add(playlistNode);
+            playlists.add(new PlaylistDetails(playlist.getName(), songs, visibility,
+                playlist.getFollowers().size()));
         }
-        showPlaylistsOutput.putPOJO("result", playlists);
-        outputs.add(showPlaylistsOutput);
+        outputs.add(new ResultOutput("showPlaylists", command.getUsername(),
+            command.getTimestamp(), playlists));
     }
 
     /**
@@ -248,23 +209,13 @@ public class User implements Observer {
      * @param outputs to append output
      */
     public void showPreferredSongs(final Command command, final User user,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode showPreferredSongsOutput = mapper.createObjectNode();
-        showPreferredSongsOutput.put("command", "showPreferredSongs");
-        showPreferredSongsOutput.put("user", command.getUsername());
-        showPreferredSongsOutput.put("timestamp", command.getTimestamp());
-        ArrayNode songs = mapper.createArrayNode();
-        if (user.getLikedSongs().isEmpty()) {
-            showPreferredSongsOutput.putPOJO("result", songs);
-            outputs.add(showPreferredSongsOutput);
-            return;
-        }
+        final OutputSink outputs) {
+        ArrayList<String> songs = new ArrayList<>();
         for (Song song : user.getLikedSongs()) {
             songs.add(song.getName());
         }
-        showPreferredSongsOutput.putPOJO("result", songs);
-        outputs.add(showPreferredSongsOutput);
+        outputs.add(new ResultOutput("showPreferredSongs", command.getUsername(),
+            command.getTimestamp(), songs));
     }
 
     /**
@@ -272,44 +223,39 @@ public class User implements Observer {
      *
      * @param command for the output timestamp and to update the Player
      */
-    public void follow(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode followOutput = mapper.createObjectNode();
-        followOutput.put("command", "follow");
-        followOutput.put("user", command.getUsername());
-        followOutput.put("timestamp", command.getTimestamp());
+    public void follow(final Command command, final User user, final OutputSink outputs) {
         if (user.getStatus() == Status.OFFLINE) {
-            followOutput.put("message", "User " + username + " is not online.");
-            outputs.add(followOutput);
+            outputs.add(new MessageOutput("follow", command.getUsername(), command.getTimestamp(),
+                "User " + username + " is not online."));
             return;
         }
         user.getPlayer().update(command.getTimestamp(), user, library);
         if (user.getSearchBar().getSelected() == null) {
-            followOutput.put("message", "Please select a source before following or unfollowing.");
-            outputs.add(followOutput);
+            outputs.add(new MessageOutput("follow", command.getUsername(), command.getTimestamp(),
+                "Please select a source before following or unfollowing."));
             return;
         }
         if (user.getSearchBar().getSelected().getType() != AudioEnum.PLAYLIST) {
-            followOutput.put("message", "The selected source is not a playlist.");
-            outputs.add(followOutput);
+            outputs.add(new MessageOutput("follow", command.getUsername(), command.getTimestamp(),
+                "The selected source is not a playlist."));
             return;
         }
         Playlist playlist = (Playlist) user.getSearchBar().getSelected();
         if (playlist.getOwner().equals(user)) {
-            followOutput.put("message", "You cannot follow or unfollow your own playlist.");
-            outputs.add(followOutput);
+            outputs.add(new MessageOutput("follow", command.getUsername(), command.getTimestamp(),
+                "You cannot follow or unfollow your own playlist."));
             return;
         }
         if (playlist.getFollowers().contains(user)) {
             playlist.removeFollower(user);
             user.getFollowedPlaylists().remove(playlist);
-            followOutput.put("message", "Playlist unfollowed successfully.");
-            outputs.add(followOutput);
+            outputs.add(new MessageOutput("follow", command.getUsername(), command.getTimestamp(),
+                "Playlist unfollowed successfully."));
         } else {
             playlist.addFollower(user);
             user.getFollowedPlaylists().add(playlist);
-            followOutput.put("message", "Playlist followed successfully.");
-            outputs.add(followOutput);
+            outputs.add(new MessageOutput("follow", command.getUsername(), command.getTimestamp(),
+                "Playlist followed successfully."));
         }
 
     }
@@ -317,28 +263,22 @@ public class User implements Observer {
     /**
      * Switch visiblity of the selected playlist. (private => public or public => private)
      */
-    public void switchVisibility(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode switchVisibilityOutput = mapper.createObjectNode();
-        switchVisibilityOutput.put("command", "switchVisibility");
-        switchVisibilityOutput.put("user", command.getUsername());
-        switchVisibilityOutput.put("timestamp", command.getTimestamp());
+    public void switchVisibility(final Command command, final User user, final OutputSink outputs) {
         if (command.getPlaylistId() > user.getPlaylists().size()) {
-            switchVisibilityOutput.put("message", "The specified playlist ID is too high.");
-            outputs.add(switchVisibilityOutput);
+            outputs.add(new MessageOutput("switchVisibility", command.getUsername(),
+                command.getTimestamp(), "The specified playlist ID is too high."));
             return;
         }
         Playlist playlist = user.getPlaylists().get(command.getPlaylistId() - 1);
+        user.getLibrary().bumpVersion(SearchScope.PLAYLIST);
         if (playlist.getIsPrivate() == 1) {
             playlist.setIsPrivate(0);
-            switchVisibilityOutput.put("message",
-                "Visibility status updated successfully to public.");
-            outputs.add(switchVisibilityOutput);
+            outputs.add(new MessageOutput("switchVisibility", command.getUsername(),
+                command.getTimestamp(), "Visibility status updated successfully to public."));
         } else {
             playlist.setIsPrivate(1);
-            switchVisibilityOutput.put("message",
-                "Visibility status updated successfully to private.");
-            outputs.add(switchVisibilityOutput);
+            outputs.add(new MessageOutput("switchVisibility", command.getUsername(),
+                command.getTimestamp(), "Visibility status updated successfully to private."));
         }
     }
 
@@ -346,16 +286,10 @@ public class User implements Observer {
      * Make user go online/offline. (Only for normal users!)
      */
     public void switchConnectionStatus(final Command command, final User user,
-        final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode switchConnectionStatusOutput = mapper.createObjectNode();
-        switchConnectionStatusOutput.put("command", "switchConnectionStatus");
-        switchConnectionStatusOutput.put("user", command.getUsername());
-        switchConnectionStatusOutput.put("timestamp", command.getTimestamp());
+        final OutputSink outputs) {
         if (user.getType() != UserType.NORMAL) {
-            switchConnectionStatusOutput.put("message",
-                command.getUsername() + " is not a normal user.");
-            outputs.add(switchConnectionStatusOutput);
+            outputs.add(new MessageOutput("switchConnectionStatus", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not a normal user."));
             return;
         }
         user.getPlayer().update(command.getTimestamp(), user, library);
@@ -364,24 +298,18 @@ public class User implements Observer {
         } else {
             user.setStatus(Status.ONLINE);
         }
-        switchConnectionStatusOutput.put("message",
-            user.getUsername() + " has changed status successfully.");
-        outputs.add(switchConnectionStatusOutput);
+        outputs.add(new MessageOutput("switchConnectionStatus", command.getUsername(),
+            command.getTimestamp(), user.getUsername() + " has changed status successfully."));
     }
 
     /**
      * Add a new album. (Only for artists!)
      */
     public void addAlbum(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (type != UserType.ARTIST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode addAlbumOutput = mapper.createObjectNode();
-            addAlbumOutput.put("command", "addAlbum");
-            addAlbumOutput.put("user", command.getUsername());
-            addAlbumOutput.put("timestamp", command.getTimestamp());
-            addAlbumOutput.put("message", command.getUsername() + " is not an artist.");
-            outputs.add(addAlbumOutput);
+            outputs.add(new MessageOutput("addAlbum", command.getUsername(), command.getTimestamp(),
+                command.getUsername() + " is not an artist."));
             return;
         }
         // go to function in Artist
@@ -393,15 +321,10 @@ public class User implements Observer {
      * Show all albums of the artist. (Only for artists, in which case we go to the overriden
      * function in Artist)
      */
-    public void showAlbums(final Command command, final User user, final ArrayNode outputs) {
+    public void showAlbums(final Command command, final User user, final OutputSink outputs) {
         if (type != UserType.ARTIST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode showAlbumsOutput = mapper.createObjectNode();
-            showAlbumsOutput.put("command", "showAlbums");
-            showAlbumsOutput.put("user", command.getUsername());
-            showAlbumsOutput.put("timestamp", command.getTimestamp());
-            showAlbumsOutput.put("message", command.getUsername() + " is not an artist.");
-            outputs.add(showAlbumsOutput);
+            outputs.add(new MessageOutput("showAlbums", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not an artist."));
             return;
         }
         this.showAlbumsReal(command, user, outputs);
@@ -410,16 +333,11 @@ public class User implements Observer {
     /**
      * Print the current page. (Only for normal users!)
      */
-    public void printCurrentPage(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode printCurrentPageOutput = mapper.createObjectNode();
-        printCurrentPageOutput.put("command", "printCurrentPage");
-        printCurrentPageOutput.put("user", command.getUsername());
-        printCurrentPageOutput.put("timestamp", command.getTimestamp());
+    public void printCurrentPage(final Command command, final User user, final OutputSink outputs) {
         user.getPlayer().update(command.getTimestamp(), user, library);
         if (user.getStatus() == Status.OFFLINE) {
-            printCurrentPageOutput.put("message", username + " is offline.");
-            outputs.add(printCurrentPageOutput);
+            outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                command.getTimestamp(), username + " is offline."));
             return;
         }
         StringBuilder pageContent = new StringBuilder();
@@ -466,15 +384,15 @@ public class User implements Observer {
                     pageContent.append(playlistRecommendation.getName());
                 }
                 pageContent.append("]");
-                printCurrentPageOutput.put("message", pageContent.toString());
-                outputs.add(printCurrentPageOutput);
+                outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                    command.getTimestamp(), pageContent.toString()));
             }
             case ARTIST -> {
                 //find artist with that user
                 /* if (player.getQueue() == null) {
-                    printCurrentPageOutput.put("message",
-                        "Please load a source before printing the current page.");
-                    outputs.add(printCurrentPageOutput);
+                    outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                        command.getTimestamp(),
+                        "Please load a source before printing the current page."));
                     return;
                 } */
                 //Artist artist = library.findArtist(((Song) player.getCurrentFile()).getArtist());
@@ -511,20 +429,20 @@ public class User implements Observer {
                     pageContent = pageContent.append(artist.getEvents().get(i).getDescription());
                 }
                 pageContent = pageContent.append("]");
-                printCurrentPageOutput.put("message", pageContent.toString());
-                outputs.add(printCurrentPageOutput);
+                outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                    command.getTimestamp(), pageContent.toString()));
             }
             case HOST -> {
                 //find host with that user
                 /* if (player.getQueue() == null) {
-                    printCurrentPageOutput.put("message",
-                        "Please load a source before printing the current page.");
-                    outputs.add(printCurrentPageOutput);
+                    outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                        command.getTimestamp(),
+                        "Please load a source before printing the current page."));
                     return;
                 } */
                 /* if (player.getQueue().getType() != AudioEnum.PODCAST) {
-                    printCurrentPageOutput.put("message", "The loaded source is not a podcast.");
-                    outputs.add(printCurrentPageOutput);
+                    outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                        command.getTimestamp(), "The loaded source is not a podcast."));
                     return;
                 } */
                 //Host host = (Host) library.findUser(((Podcast) player.getQueue()).getOwner());
@@ -562,8 +480,8 @@ public class User implements Observer {
                     pageContent = pageContent.append("\n");
                 }
                 pageContent = pageContent.append("]");
-                printCurrentPageOutput.put("message", pageContent.toString());
-                outputs.add(printCurrentPageOutput);
+                outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                    command.getTimestamp(), pageContent.toString()));
             }
             case LIKES -> {
                 pageContent = pageContent.append("Liked songs:\n\t[");
@@ -591,8 +509,8 @@ public class User implements Observer {
                     i++;
                 }
                 pageContent = pageContent.append("]");
-                printCurrentPageOutput.put("message", pageContent.toString());
-                outputs.add(printCurrentPageOutput);
+                outputs.add(new MessageOutput("printCurrentPage", command.getUsername(),
+                    command.getTimestamp(), pageContent.toString()));
             }
             default -> {
 
@@ -603,15 +521,10 @@ public class User implements Observer {
     /**
      * Add a new merchandise item. (Only for artists!)
      */
-    public void addMerch(final Command command, final ArrayNode outputs) {
+    public void addMerch(final Command command, final OutputSink outputs) {
         if (type != UserType.ARTIST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode addMerchOutput = mapper.createObjectNode();
-            addMerchOutput.put("command", "addMerch");
-            addMerchOutput.put("user", command.getUsername());
-            addMerchOutput.put("timestamp", command.getTimestamp());
-            addMerchOutput.put("message", command.getUsername() + " is not an artist.");
-            outputs.add(addMerchOutput);
+            outputs.add(new MessageOutput("addMerch", command.getUsername(), command.getTimestamp(),
+                command.getUsername() + " is not an artist."));
             return;
         }
         this.addMerchReal(command, outputs);
@@ -620,15 +533,10 @@ public class User implements Observer {
     /**
      * Add a new event. (Only for artists!)
      */
-    public void addEvent(final Command command, final ArrayNode outputs) {
+    public void addEvent(final Command command, final OutputSink outputs) {
         if (type != UserType.ARTIST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode addEventOutput = mapper.createObjectNode();
-            addEventOutput.put("command", "addEvent");
-            addEventOutput.put("user", command.getUsername());
-            addEventOutput.put("timestamp", command.getTimestamp());
-            addEventOutput.put("message", command.getUsername() + " is not an artist.");
-            outputs.add(addEventOutput);
+            outputs.add(new MessageOutput("addEvent", command.getUsername(), command.getTimestamp(),
+                command.getUsername() + " is not an artist."));
             return;
         }
         this.addEventReal(command, outputs);
@@ -638,15 +546,10 @@ public class User implements Observer {
      * Add a new podcast. (Only for hosts!)
      */
     public void addPodcast(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (type != UserType.HOST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode addPodcastOutput = mapper.createObjectNode();
-            addPodcastOutput.put("command", "addPodcast");
-            addPodcastOutput.put("user", command.getUsername());
-            addPodcastOutput.put("timestamp", command.getTimestamp());
-            addPodcastOutput.put("message", command.getUsername() + " is not a host.");
-            outputs.add(addPodcastOutput);
+            outputs.add(new MessageOutput("addPodcast", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not a host."));
             return;
         }
         this.addPodcastReal(command, myLibrary, user, outputs);
@@ -656,21 +559,21 @@ public class User implements Observer {
      * Override in Host
      */
     public void addPodcastReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         // override in Host
     }
 
     /**
      * Override in Artist
      */
-    public void addEventReal(final Command command, final ArrayNode outputs) {
+    public void addEventReal(final Command command, final OutputSink outputs) {
         // override in Artist
     }
 
     /**
      * Override in Artist
      */
-    public void addMerchReal(final Command command, final ArrayNode outputs) {
+    public void addMerchReal(final Command command, final OutputSink outputs) {
         // override in Artist
     }
 
@@ -678,14 +581,14 @@ public class User implements Observer {
      * Override in Artist
      */
     public void addAlbumReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         // override in Artist
     }
 
     /**
      * Override in Artist
      */
-    public void showAlbumsReal(final Command command, final User user, final ArrayNode outputs) {
+    public void showAlbumsReal(final Command command, final User user, final OutputSink outputs) {
         // override in Artist
     }
 
@@ -693,15 +596,10 @@ public class User implements Observer {
      * Add a new announcement. (Only for hosts!)
      */
     public void addAnnouncement(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (type != UserType.HOST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode addAnnouncementOutput = mapper.createObjectNode();
-            addAnnouncementOutput.put("command", "addAnnouncement");
-            addAnnouncementOutput.put("user", command.getUsername());
-            addAnnouncementOutput.put("timestamp", command.getTimestamp());
-            addAnnouncementOutput.put("message", command.getUsername() + " is not a host.");
-            outputs.add(addAnnouncementOutput);
+            outputs.add(new MessageOutput("addAnnouncement", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not a host."));
             return;
         }
         this.addAnnouncementReal(command, myLibrary, user, outputs);
@@ -711,22 +609,17 @@ public class User implements Observer {
      * Override in Host
      */
     public void addAnnouncementReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
     }
 
     /**
      * Remove an announcement. (Only for hosts!)
      */
     public void removeAnnouncement(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (type != UserType.HOST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode removeAnnouncementOutput = mapper.createObjectNode();
-            removeAnnouncementOutput.put("command", "removeAnnouncement");
-            removeAnnouncementOutput.put("user", command.getUsername());
-            removeAnnouncementOutput.put("timestamp", command.getTimestamp());
-            removeAnnouncementOutput.put("message", command.getUsername() + " is not a host.");
-            outputs.add(removeAnnouncementOutput);
+            outputs.add(new MessageOutput("removeAnnouncement", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not a host."));
             return;
         }
         this.removeAnnouncementReal(command, myLibrary, user, outputs);
@@ -737,22 +630,17 @@ public class User implements Observer {
      */
     public void removeAnnouncementReal(final Command command, final Library myLibrary,
         final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
 
     }
 
     /**
      * Show all podcasts of the host. (Only for hosts!)
      */
-    public void showPodcasts(final Command command, final User user, final ArrayNode outputs) {
+    public void showPodcasts(final Command command, final User user, final OutputSink outputs) {
         if (type != UserType.HOST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode showPodcastsOutput = mapper.createObjectNode();
-            showPodcastsOutput.put("command", "showPodcasts");
-            showPodcastsOutput.put("user", command.getUsername());
-            showPodcastsOutput.put("timestamp", command.getTimestamp());
-            showPodcastsOutput.put("message", command.getUsername() + " is not a host.");
-            outputs.add(showPodcastsOutput);
+            outputs.add(new MessageOutput("showPodcasts", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not a host."));
             return;
         }
         this.showPodcastsReal(command, user, outputs);
@@ -761,7 +649,7 @@ public class User implements Observer {
     /**
      * Override in Host
      */
-    public void showPodcastsReal(final Command command, final User user, final ArrayNode outputs) {
+    public void showPodcastsReal(final Command command, final User user, final OutputSink outputs) {
         // override in Host
     }
 
@@ -769,15 +657,10 @@ public class User implements Observer {
      * Remove an album. (Only for artists!)
      */
     public void removeAlbum(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (user.getType() != UserType.ARTIST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode removeAlbumOutput = mapper.createObjectNode();
-            removeAlbumOutput.put("command", "removeAlbum");
-            removeAlbumOutput.put("user", command.getUsername());
-            removeAlbumOutput.put("timestamp", command.getTimestamp());
-            removeAlbumOutput.put("message", command.getUsername() + " is not an artist.");
-            outputs.add(removeAlbumOutput);
+            outputs.add(new MessageOutput("removeAlbum", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not an artist."));
             return;
         }
         this.removeAlbumReal(command, user, myLibrary, outputs);
@@ -787,22 +670,17 @@ public class User implements Observer {
      * Override in Artist
      */
     public void removeAlbumReal(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         // override in Artist
     }
 
     /**
      * Change the page the (NORMAL!) user is currently on.
      */
-    public void changePage(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode changePageOutput = mapper.createObjectNode();
-        changePageOutput.put("command", "changePage");
-        changePageOutput.put("user", command.getUsername());
-        changePageOutput.put("timestamp", command.getTimestamp());
+    public void changePage(final Command command, final User user, final OutputSink outputs) {
         if (user.getStatus() == Status.OFFLINE) {
-            changePageOutput.put("message", "User " + username + " is offline.");
-            outputs.add(changePageOutput);
+            outputs.add(new MessageOutput("changePage", command.getUsername(),
+                command.getTimestamp(), "User " + username + " is offline."));
             return;
         }
         switch (command.getNextPage()) {
@@ -812,17 +690,17 @@ public class User implements Observer {
                 user.setCurrentPage(Page.HOME);
                 user.setPageOwner("");
                 nextPages.clear();
-                changePageOutput.put("message",
-                    command.getUsername() + " accessed Home successfully.");
-                outputs.add(changePageOutput);
+                outputs.add(new MessageOutput("changePage", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " accessed Home successfully."));
                 return;
             }
             case "LikedContent" -> {
                 user.setCurrentPage(Page.LIKES);
                 user.setPageOwner("");
-                changePageOutput.put("message",
-                    command.getUsername() + " accessed LikedContent successfully.");
-                outputs.add(changePageOutput);
+                outputs.add(new MessageOutput("changePage", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " accessed LikedContent successfully."));
                 return;
             }
             case "Artist" -> {
@@ -831,9 +709,9 @@ public class User implements Observer {
                 user.setCurrentPage(Page.ARTIST);
                 user.setPageOwner(((Song)player.getCurrentFile()).getArtist());
                 nextPages.clear();
-                changePageOutput.put("message",
-                    command.getUsername() + " accessed Artist successfully.");
-                outputs.add(changePageOutput);
+                outputs.add(new MessageOutput("changePage", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " accessed Artist successfully."));
                 return;
             }
             case "Host" -> {
@@ -843,16 +721,16 @@ public class User implements Observer {
                 String hostName = ((Podcast)player.getQueue()).getOwner();
                 nextPages.clear();
                 user.setPageOwner(hostName);
-                changePageOutput.put("message",
-                    command.getUsername() + " accessed Host successfully.");
-                outputs.add(changePageOutput);
+                outputs.add(new MessageOutput("changePage", command.getUsername(),
+                    command.getTimestamp(),
+                    command.getUsername() + " accessed Host successfully."));
                 return;
             }
             default -> {
             }
         }
-        changePageOutput.put("message", "Invalid page.");
-        outputs.add(changePageOutput);
+        outputs.add(new MessageOutput("changePage", command.getUsername(), command.getTimestamp(),
+            "Invalid page."));
     }
 
 
@@ -860,15 +738,10 @@ public class User implements Observer {
      * Remove a podcast. (Only for hosts!)
      */
     public void removePodcast(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (user.getType() != UserType.HOST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode removePodcastOutput = mapper.createObjectNode();
-            removePodcastOutput.put("command", "removePodcast");
-            removePodcastOutput.put("user", command.getUsername());
-            removePodcastOutput.put("timestamp", command.getTimestamp());
-            removePodcastOutput.put("message", command.getUsername() + " is not a host.");
-            outputs.add(removePodcastOutput);
+            outputs.add(new MessageOutput("removePodcast", command.getUsername(),
+                command.getTimestamp(), command.getUsername() + " is not a host."));
             return;
         }
         this.removePodcastReal(command, myLibrary, user, outputs);
@@ -878,7 +751,7 @@ public class User implements Observer {
      * Override in Host
      */
     public void removePodcastReal(final Command command, final Library myLibrary, final User user,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         // override in Host
     }
 
@@ -886,15 +759,10 @@ public class User implements Observer {
      * Remove an event. (Only for artists!)
      */
     public void removeEvent(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
         if (user.getType() != UserType.ARTIST) {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode removeEventOutput = mapper.createObjectNode();
-            removeEventOutput.put("command", "removeEvent");
-            removeEventOutput.put("user", command.getUsername());
-            removeEventOutput.put("timestamp", command.getTimestamp());
-            removeEventOutput.put("message", "User not authorized to perform this operation.");
-            outputs.add(removeEventOutput);
+            outputs.add(new MessageOutput("removeEvent", command.getUsername(),
+                command.getTimestamp(), "User not authorized to perform this operation."));
             return;
         }
         this.removeEventReal(command, user, myLibrary, outputs);
@@ -904,206 +772,115 @@ public class User implements Observer {
      * Override in Artist
      */
     public void removeEventReal(final Command command, final User user, final Library myLibrary,
-        final ArrayNode outputs) {
+        final OutputSink outputs) {
     }
 
     /**
-     * Add a listen to the artist's listens. Used for Wrapped to see how many times the user
-     * listened to an artist.
+     * @return the user's progress in the podcast, at its start if the user never loaded it
      */
-    public void addArtistListen(final String name) {
-        for (Listens artistListen : artistListens) {
-            if (artistListen.getName().equals(name)) {
-                artistListen.addListen();
-                return;
-            }
+    public PodcastProgress progressOf(final Podcast podcast) {
+        PodcastProgress progress = podcastProgress.get(podcast);
+        if (progress == null) {
+            progress = new PodcastProgress(podcast);
+            podcastProgress.put(podcast, progress);
+            library.startedPodcast(this, podcast);
         }
-        // never listened to artist before
-        artistListens.add(new Listens(name));
+        return progress;
+    }
 
+    /**
+     * Add a listen to the artist's listens. Used for Wrapped to see how many times the user
+     * listened to an artist.
+     */
+    public void addArtistListen(final int artistId, final String name) {
+        artistListens.add(artistId, name);
     }
 
     /**
      * Add a listen to the genre's listens. Used for Wrapped to see how many times the user listened
      * to a genre.
      */
-    public void addGenreListen(final String name) {
-        for (Listens genreListen : genreListens) {
-            if (genreListen.getName().equals(name)) {
-                genreListen.addListen();
-                return;
-            }
-        }
-        // never listened to genre before
-        genreListens.add(new Listens(name));
+    public void addGenreListen(final int genreId, final String name) {
+        genreListens.add(genreId, name);
     }
 
     /**
      * Add a listen to the song's listens. Used for Wrapped to see how many times the user listened
      * to a song.
      */
-    public void addSongListen(final String name) {
-        for (Listens songListen : songListens) {
-            if (songListen.getName().equals(name)) {
-                songListen.addListen();
-                return;
-            }
-        }
-
-        // never listened to song before
-        songListens.add(new Listens(name));
+    public void addSongListen(final int songId, final String name) {
+        songListens.add(songId, name);
     }
 
     /**
      * Add a listen to the album's listens. Used for Wrapped to see how many times the user listened
      * to an album.
      */
-    public void addAlbumListen(final String name) {
-        for (Listens albumListen : albumListens) {
-            if (albumListen.getName().equals(name)) {
-                albumListen.addListen();
-                return;
-            }
-        }
-        // never listened to album before
-        albumListens.add(new Listens(name));
+    public void addAlbumListen(final int albumId, final String name) {
+        albumListens.add(albumId, name);
     }
 
     /**
      * Add a listen to the episode's listens. Used for Wrapped to see how many times the user
      * listened to an episode.
      */
-    public void addEpisodeListen(final String name) {
-        for (Listens episodeListen : episodeListens) {
-            if (episodeListen.getName().equals(name)) {
-                episodeListen.addListen();
-                return;
-            }
-        }
-        // never listened to episode before
-        episodeListens.add(new Listens(name));
+    public void addEpisodeListen(final int episodeId, final String name) {
+        episodeListens.add(episodeId, name);
     }
 
     /**
      * Print the user's Wrapped. (top listened songs, albums, ...)
      */
-    public void wrapped(final Command command, final User user, final ArrayNode outputs,
+    public void wrapped(final Command command, final User user, final OutputSink outputs,
         final Library myLibrary) {
         user.getPlayer().update(command.getTimestamp(), user, library);
         // print top 5 listened artists, genres, songs, albums, podcasts
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode wrappedOutput = mapper.createObjectNode();
-        wrappedOutput.put("command", "wrapped");
-        wrappedOutput.put("user", command.getUsername());
-        wrappedOutput.put("timestamp", command.getTimestamp());
-        if (user.getSongListens().size() == 0 && user.getEpisodeListens().size() == 0) {
-            wrappedOutput.put("message", "No data to show for user " + command.getUsername() + ".");
-            outputs.add(wrappedOutput);
+        if (user.getSongListens().isEmpty() && user.getEpisodeListens().isEmpty()) {
+            outputs.add(new MessageOutput("wrapped", command.getUsername(), command.getTimestamp(),
+                "No data to show for user " + command.getUsername() + "."));
             return;
         }
-        ObjectNode result = mapper.createObjectNode();
-        ObjectNode artists = mapper.createObjectNode();
-        ObjectNode genres = mapper.createObjectNode();
-        ObjectNode songs = mapper.createObjectNode();
-        ObjectNode albums = mapper.createObjectNode();
-        ObjectNode episodes = mapper.createObjectNode();
-        // sort listens by number of listens
-        artistListens.sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        genreListens.sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        songListens.sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        albumListens.sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-        episodeListens.sort((o1, o2) -> {
-            if (o1.getListens() == o2.getListens()) {
-                // sort by name
-                return o1.getName().compareTo(o2.getName());
-            }
-            return o2.getListens() - o1.getListens();
-        });
-
-        for (int i = 0; i < MAX_PRINTED; i++) {
-            if (i < artistListens.size()) {
-                artists.put(artistListens.get(i).getName(), artistListens.get(i).getListens());
-            }
+        LinkedHashMap<String, Integer> artists = new LinkedHashMap<>();
+        LinkedHashMap<String, Integer> genres = new LinkedHashMap<>();
+        LinkedHashMap<String, Integer> songs = new LinkedHashMap<>();
+        LinkedHashMap<String, Integer> albums = new LinkedHashMap<>();
+        LinkedHashMap<String, Integer> episodes = new LinkedHashMap<>();
+        // add the top 5 listened artists, genres, songs, albums and podcasts
+        for (Listens listens : artistListens.top(MAX_PRINTED)) {
+            artists.put(listens.getName(), listens.getListens());
         }
-        // add top 5 listened genres
-        for (int i = 0; i < MAX_PRINTED; i++) {
-            if (i < genreListens.size()) {
-                genres.put(genreListens.get(i).getName(), genreListens.get(i).getListens());
-            }
+        for (Listens listens : genreListens.top(MAX_PRINTED)) {
+            genres.put(listens.getName(), listens.getListens());
         }
-        // add top 5 listened songs
-        for (int i = 0; i < MAX_PRINTED; i++) {
-            if (i < songListens.size()) {
-                songs.put(songListens.get(i).getName(), songListens.get(i).getListens());
-            }
+        for (Listens listens : songListens.top(MAX_PRINTED)) {
+            songs.put(listens.getName(), listens.getListens());
         }
-        // add top 5 listened albums
-        for (int i = 0; i < MAX_PRINTED; i++) {
-            if (i < albumListens.size()) {
-                albums.put(albumListens.get(i).getName(), albumListens.get(i).getListens());
-            }
+        for (Listens listens : albumListens.top(MAX_PRINTED)) {
+            albums.put(listens.getName(), listens.getListens());
         }
-        // add top 5 listened podcasts
-        for (int i = 0; i < MAX_PRINTED; i++) {
-            if (i < episodeListens.size()) {
-                episodes.put(episodeListens.get(i).getName(),
-                    episodeListens.get(i).getListens());
-            }
+        for (Listens listens : episodeListens.top(MAX_PRINTED)) {
+            episodes.put(listens.getName(), listens.getListens());
         }
-        result.putPOJO("topArtists", artists);
-        result.putPOJO("topGenres", genres);
-        result.putPOJO("topSongs", songs);
-        result.putPOJO("topAlbums", albums);
-        result.putPOJO("topEpisodes", episodes);
-        wrappedOutput.putPOJO("result", result);
-        outputs.add(wrappedOutput);
+        outputs.add(new ResultOutput("wrapped", command.getUsername(), command.getTimestamp(),
+            new UserWrapped(artists, genres, songs, albums, episodes)));
     }
 
     /**
      * Insert an ad in the user's player.
      */
-    public void adBreak(final Command command, final User user, final ArrayNode outputs,
+    public void adBreak(final Command command, final User user, final OutputSink outputs,
         final Library myLibrary) {
         user.getPlayer().update(command.getTimestamp(), user, library);
         // print top 5 listened artists, genres, songs, albums, podcasts
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode adBreakOutput = mapper.createObjectNode();
-        adBreakOutput.put("command", "adBreak");
-        adBreakOutput.put("user", command.getUsername());
-        adBreakOutput.put("timestamp", command.getTimestamp());
         if (user.getPlayer().getQueue() == null) {
-            adBreakOutput.put("message", command.getUsername() + " is not playing any music.");
-            outputs.add(adBreakOutput);
+            outputs.add(new MessageOutput("adBreak", command.getUsername(), command.getTimestamp(),
+                command.getUsername() + " is not playing any music."));
             return;
         }
         user.getPlayer().setAdBreak(true);
         user.getPlayer().setAdPrice((double) command.getPrice());
-        adBreakOutput.put("message", "Ad inserted successfully.");
-        outputs.add(adBreakOutput);
+        outputs.add(new MessageOutput("adBreak", command.getUsername(), command.getTimestamp(),
+            "Ad inserted successfully."));
     }
 
     /**
@@ -1128,33 +905,16 @@ public class User implements Observer {
     /**
      * See the user's notifications. NOTE: They are deleted after being seen.
      */
-    public void getUserNotifications(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode notificationsOutput = mapper.createObjectNode();
-        notificationsOutput.put("command", "getNotifications");
-        notificationsOutput.put("user", command.getUsername());
-        notificationsOutput.put("timestamp", command.getTimestamp());
-        ArrayNode notificationsArray = mapper.createArrayNode();
-        for (Notification notification : notifications) {
-            ObjectNode notificationNode = mapper.createObjectNode();
-            notificationNode.put("description", notification.getDescription());
-            notificationNode.put("name", notification.getName());
-            notificationsArray.add(notificationNode);
-        }
-        notificationsOutput.putPOJO("notifications", notificationsArray);
-        outputs.add(notificationsOutput);
+    public void getUserNotifications(final Command command, final OutputSink outputs) {
+        outputs.add(new NotificationsOutput(command.getUsername(), command.getTimestamp(),
+            notifications));
         notifications.clear();
     }
 
     /**
      * Buy merch.
      */
-    public void buyMerch(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode buyMerchOutput = mapper.createObjectNode();
-        buyMerchOutput.put("command", "buyMerch");
-        buyMerchOutput.put("user", command.getUsername());
-        buyMerchOutput.put("timestamp", command.getTimestamp());
+    public void buyMerch(final Command command, final OutputSink outputs) {
         for (Artist artist : library.getArtists()) {
             for (Merch merch : artist.getMerches()) {
                 if (merch.getName().equals(command.getName())) {
@@ -1162,91 +922,70 @@ public class User implements Observer {
                         merch.getDescription(), merch.getPrice());
                     artist.setMerchRevenue(artist.getMerchRevenue() + merch.getPrice());
                     boughtMerch.add(newMerch);
-                    buyMerchOutput.put("message", username + " has added new merch successfully.");
-                    outputs.add(buyMerchOutput);
+                    outputs.add(new MessageOutput("buyMerch", command.getUsername(),
+                        command.getTimestamp(), username + " has added new merch successfully."));
                     return;
                 }
             }
         }
-        buyMerchOutput.put("message", "The merch " + command.getName() + " doesn't exist.");
-        outputs.add(buyMerchOutput);
+        outputs.add(new MessageOutput("buyMerch", command.getUsername(), command.getTimestamp(),
+            "The merch " + command.getName() + " doesn't exist."));
     }
 
     /**
      * See all merch bought by user.
      */
-    public void seeMerch(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode seeMerchOutput = mapper.createObjectNode();
-        seeMerchOutput.put("command", "seeMerch");
-        seeMerchOutput.put("user", command.getUsername());
-        seeMerchOutput.put("timestamp", command.getTimestamp());
-        ArrayNode merchArray = mapper.createArrayNode();
+    public void seeMerch(final Command command, final OutputSink outputs) {
+        ArrayList<String> merchNames = new ArrayList<>();
         for (Merch merch : boughtMerch) {
-            merchArray.add(merch.getName());
+            merchNames.add(merch.getName());
         }
-        seeMerchOutput.putPOJO("result", merchArray);
-        outputs.add(seeMerchOutput);
+        outputs.add(new ResultOutput("seeMerch", command.getUsername(), command.getTimestamp(),
+            merchNames));
 
     }
 
     /**
      * Buy a premium subscription.
      */
-    public void buyPremium(final Command command, final ArrayNode outputs) {
+    public void buyPremium(final Command command, final OutputSink outputs) {
         player.update(command.getTimestamp(), this, library);
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode buyPremiumOutput = mapper.createObjectNode();
-        buyPremiumOutput.put("command", "buyPremium");
-        buyPremiumOutput.put("user", command.getUsername());
-        buyPremiumOutput.put("timestamp", command.getTimestamp());
         if (isPremium) {
-            buyPremiumOutput.put("message", username + " is already a premium user.");
-            outputs.add(buyPremiumOutput);
+            outputs.add(new MessageOutput("buyPremium", command.getUsername(),
+                command.getTimestamp(), username + " is already a premium user."));
             return;
         }
         isPremium = true;
-        buyPremiumOutput.put("message", username + " bought the subscription successfully.");
-        outputs.add(buyPremiumOutput);
+        outputs.add(new MessageOutput("buyPremium", command.getUsername(), command.getTimestamp(),
+            username + " bought the subscription successfully."));
     }
 
     /**
      * Cancel premium subscription.
      */
-    public void cancelPremium(final Command command, final ArrayNode outputs) {
+    public void cancelPremium(final Command command, final OutputSink outputs) {
         player.update(command.getTimestamp(), this, library);
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode cancelPremiumOutput = mapper.createObjectNode();
-        cancelPremiumOutput.put("command", "cancelPremium");
-        cancelPremiumOutput.put("user", command.getUsername());
-        cancelPremiumOutput.put("timestamp", command.getTimestamp());
         if (!isPremium) {
-            cancelPremiumOutput.put("message", username + " is not a premium user.");
-            outputs.add(cancelPremiumOutput);
+            outputs.add(new MessageOutput("cancelPremium", command.getUsername(),
+                command.getTimestamp(), username + " is not a premium user."));
             return;
         }
         player.payout(this, library);
         isPremium = false;
-        cancelPremiumOutput.put("message", username + " cancelled the subscription successfully.");
-        outputs.add(cancelPremiumOutput);
+        outputs.add(new MessageOutput("cancelPremium", command.getUsername(),
+            command.getTimestamp(), username + " cancelled the subscription successfully."));
     }
 
     /**
      * Update recommendation.
      */
-    public void updateRecommendations(final Command command, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode updateRecommendationOutput = mapper.createObjectNode();
-        updateRecommendationOutput.put("command", "updateRecommendations");
-        updateRecommendationOutput.put("user", command.getUsername());
-        updateRecommendationOutput.put("timestamp", command.getTimestamp());
+    public void updateRecommendations(final Command command, final OutputSink outputs) {
         player.update(command.getTimestamp(), this, library);
         switch (command.getRecommendationType()) {
             case "random_song" -> {
                 if (player.getTimeListened() < MIN_LISTENED) {
-                    updateRecommendationOutput.put("message",
-                        "No new recommendations were found");
-                    outputs.add(updateRecommendationOutput);
+                    outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                        command.getTimestamp(), "No new recommendations were found"));
                     return;
                 }
                 // add all songs with genre of the listened song to a list
@@ -1261,17 +1000,16 @@ public class User implements Observer {
                 int randomIndex = random.nextInt(genreSongs.size());
                 Song randomSong = genreSongs.get(randomIndex);
                 if (randomSong == null) {
-                    updateRecommendationOutput.put("message",
-                        "No new recommendations were found");
-                    outputs.add(updateRecommendationOutput);
+                    outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                        command.getTimestamp(), "No new recommendations were found"));
                     return;
                 }
                 songRecommendation = randomSong;
                 lastRecommendation = "song";
-                updateRecommendationOutput.put("message",
+                outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                    command.getTimestamp(),
                     "The recommendations for user " + username
-                        + " have been updated successfully.");
-                outputs.add(updateRecommendationOutput);
+                        + " have been updated successfully."));
             }
             case "random_playlist" -> {
                 ArrayList<Listens> genres = new ArrayList<>();
@@ -1302,9 +1040,9 @@ public class User implements Observer {
                 ArrayList<Song> genreSongs = new ArrayList<>();
                 for (Song song : library.getSongs()) {
                     if (genres.size() < 1) {
-                        updateRecommendationOutput.put("message",
-                            "No new recommendations were found");
-                        outputs.add(updateRecommendationOutput);
+                        outputs.add(new MessageOutput("updateRecommendations",
+                            command.getUsername(), command.getTimestamp(),
+                            "No new recommendations were found"));
                         return;
                     }
                     if (song.getGenre().equals(genres.get(0).getName())) {
@@ -1375,44 +1113,32 @@ public class User implements Observer {
                 }
                 genreSongs.clear();
                 if (recommendedPlaylist.getSongs().isEmpty()) {
-                    updateRecommendationOutput.put("message",
-                        "No new recommendations were found");
-                    outputs.add(updateRecommendationOutput);
+                    outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                        command.getTimestamp(), "No new recommendations were found"));
                     return;
                 }
                 playlistRecommendation = recommendedPlaylist;
                 lastRecommendation = "playlist";
-                updateRecommendationOutput.put("message",
+                outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                    command.getTimestamp(),
                     "The recommendations for user " + username
-                        + " have been updated successfully.");
-                outputs.add(updateRecommendationOutput);
+                        + " have been updated successfully."));
 
             }
             case "fans_playlist" -> {
                 Artist artist = library.findArtist(((Song) player.getCurrentFile()).getArtist());
                 // sort artists listeners by number of listens
                 if (artist.getListeners() == null) {
-                    updateRecommendationOutput.put("message",
-                        "No new recommendations were found");
-                    outputs.add(updateRecommendationOutput);
+                    outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                        command.getTimestamp(), "No new recommendations were found"));
                     return;
                 }
                 Playlist recommendedPlaylist = new Playlist(
                     artist.getUsername() + " Fan Club recommendations");
-                artist.getListeners().sort((o1, o2) -> {
-                    if (o1.getListens() == o2.getListens()) {
-                        // sort by name
-                        return o1.getName().compareTo(o2.getName());
-                    }
-                    return o2.getListens() - o1.getListens();
-                });
                 // get top 5 listeners
                 ArrayList<User> topListeners = new ArrayList<>();
-                for (int i = 0; i < MAX_PRINTED; i++) {
-                    if (i < artist.getListeners().size()) {
-                        String userName = artist.getListeners().get(i).getName();
-                        topListeners.add(library.findUser(userName));
-                    }
+                for (Listens listener : artist.getListeners().top(MAX_PRINTED)) {
+                    topListeners.add(library.findUser(listener.getName()));
                 }
                 for (User user : topListeners) {
                     // sort user's liked songs by number of likes
@@ -1431,17 +1157,16 @@ public class User implements Observer {
                     }
                 }
                 if (recommendedPlaylist.getSongs().isEmpty()) {
-                    updateRecommendationOutput.put("message",
-                        "No new recommendations were found");
-                    outputs.add(updateRecommendationOutput);
+                    outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                        command.getTimestamp(), "No new recommendations were found"));
                     return;
                 }
                 playlistRecommendation = recommendedPlaylist;
                 lastRecommendation = "playlist";
-                updateRecommendationOutput.put("message",
+                outputs.add(new MessageOutput("updateRecommendations", command.getUsername(),
+                    command.getTimestamp(),
                     "The recommendations for user " + username
-                        + " have been updated successfully.");
-                outputs.add(updateRecommendationOutput);
+                        + " have been updated successfully."));
             }
             default -> {
                 return;
@@ -1452,15 +1177,10 @@ public class User implements Observer {
     /**
      * Go to previous page.
      */
-    public void previousPage(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode previousPageOutput = mapper.createObjectNode();
-        previousPageOutput.put("command", "previousPage");
-        previousPageOutput.put("user", command.getUsername());
-        previousPageOutput.put("timestamp", command.getTimestamp());
+    public void previousPage(final Command command, final User user, final OutputSink outputs) {
         if (user.getPrevPages().size() == 0) {
-            previousPageOutput.put("message", "No page to go back to.");
-            outputs.add(previousPageOutput);
+            outputs.add(new MessageOutput("previousPage", command.getUsername(),
+                command.getTimestamp(), "No page to go back to."));
             return;
         }
         // put current page in nextPages
@@ -1469,23 +1189,17 @@ public class User implements Observer {
         user.setCurrentPage(lastPage.getType());
         user.setPageOwner(lastPage.getOwner());
         user.getPrevPages().remove(user.getPrevPages().size() - 1);
-        previousPageOutput.put("message",
-            "The user " + username + " has navigated successfully to the previous page.");
-        outputs.add(previousPageOutput);
+        outputs.add(new MessageOutput("previousPage", command.getUsername(), command.getTimestamp(),
+            "The user " + username + " has navigated successfully to the previous page."));
     }
 
     /**
      * Go to next page.
      */
-    public void nextPage(final Command command, final User user, final ArrayNode outputs) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode nextPageOutput = mapper.createObjectNode();
-        nextPageOutput.put("command", "nextPage");
-        nextPageOutput.put("user", command.getUsername());
-        nextPageOutput.put("timestamp", command.getTimestamp());
+    public void nextPage(final Command command, final User user, final OutputSink outputs) {
         if (user.getNextPages().size() == 0) {
-            nextPageOutput.put("message", "There are no pages left to go forward.");
-            outputs.add(nextPageOutput);
+            outputs.add(new MessageOutput("nextPage", command.getUsername(), command.getTimestamp(),
+                "There are no pages left to go forward."));
             return;
         }
         // put current page in prevPages
@@ -1494,9 +1208,8 @@ public class User implements Observer {
         user.setCurrentPage(nextPage.getType());
         user.setPageOwner(nextPage.getOwner());
         user.getNextPages().remove(user.getNextPages().size() - 1);
-        nextPageOutput.put("message",
-            "The user " + username + " has navigated successfully to the next page.");
-        outputs.add(nextPageOutput);
+        outputs.add(new MessageOutput("nextPage", command.getUsername(), command.getTimestamp(),
+            "The user " + username + " has navigated successfully to the next page."));
     }
 
     /**
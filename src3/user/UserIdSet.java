@@ -0,0 +1,163 @@
+package user;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of users (the likes of a song, the followers of a playlist) kept as a bitmap of their ids
+ * (see {@link User#getId()}), so membership and size don't go through the users. The users are
+ * also appended to a log, so they are iterated in the order they were added in, like in a list.
+ * Removing a user only clears its bit and leaves a tombstone in the log. The log is compacted
+ * when the tombstones outnumber the users or when a removed user is added back.
+ */
+public final class UserIdSet extends AbstractCollection<User> {
+
+    private final Bitmap members = new Bitmap();
+    // ids that have a tombstone in the log
+    private final Bitmap removed = new Bitmap();
+    private final ArrayList<User> log = new ArrayList<>();
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof User && members.get(((User) o).getId());
+    }
+
+    @Override
+    public boolean add(final User user) {
+        int id = user.getId();
+        if (members.get(id)) {
+            return false;
+        }
+        if (removed.get(id)) {
+            // its tombstone would be iterated again
+            compact();
+        }
+        members.set(id);
+        log.add(user);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (!contains(o)) {
+            return false;
+        }
+        int id = ((User) o).getId();
+        members.clear(id);
+        removed.set(id);
+        size--;
+        if (log.size() - size > size) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        members.clearAll();
+        removed.clearAll();
+        log.clear();
+        size = 0;
+    }
+
+    private void compact() {
+        log.removeIf(user -> !members.get(user.getId()));
+        removed.clearAll();
+    }
+
+    @Override
+    public Iterator<User> iterator() {
+        return new Iterator<>() {
+            private int next = skipTombstones(0);
+
+            private int skipTombstones(final int from) {
+                int position = from;
+                while (position < log.size() && !members.get(log.get(position).getId())) {
+                    position++;
+                }
+                return position;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < log.size();
+            }
+
+            @Override
+            public User next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                User user = log.get(next);
+                next = skipTombstones(next + 1);
+                return user;
+            }
+        };
+    }
+
+    /**
+     * Compressed bitmap: only the non-empty 64 bit words are kept, sorted by their index, so a
+     * set with a few high ids stays small.
+     */
+    private static final class Bitmap {
+        private static final int WORD_SHIFT = 6;
+
+        private int[] indexes = new int[1];
+        private long[] words = new long[1];
+        private int count;
+
+        boolean get(final int bit) {
+            int position = find(bit >>> WORD_SHIFT);
+            return position >= 0 && (words[position] & (1L << bit)) != 0;
+        }
+
+        void set(final int bit) {
+            int index = bit >>> WORD_SHIFT;
+            int position = find(index);
+            if (position < 0) {
+                position = -position - 1;
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                    words = Arrays.copyOf(words, count * 2);
+                }
+                System.arraycopy(indexes, position, indexes, position + 1, count - position);
+                System.arraycopy(words, position, words, position + 1, count - position);
+                indexes[position] = index;
+                words[position] = 0;
+                count++;
+            }
+            words[position] |= 1L << bit;
+        }
+
+        void clear(final int bit) {
+            int position = find(bit >>> WORD_SHIFT);
+            if (position < 0) {
+                return;
+            }
+            words[position] &= ~(1L << bit);
+            if (words[position] == 0) {
+                System.arraycopy(indexes, position + 1, indexes, position, count - position - 1);
+                System.arraycopy(words, position + 1, words, position, count - position - 1);
+                count--;
+            }
+        }
+
+        void clearAll() {
+            count = 0;
+        }
+
+        private int find(final int index) {
+            return Arrays.binarySearch(indexes, 0, count, index);
+        }
+    }
+}